@@ -0,0 +1,220 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency stress check for event capacities. Many threads register,
+ * re-register and remove attendees across a few small events at once, half
+ * of them directly and half through a RegistrationQueue, while a watcher
+ * reads seat counts without locks. Afterwards every count must add up
+ * exactly: no event over capacity at any moment, no waitlist while seats are
+ * free, seats plus waitlist equal to registrations minus removals, and the
+ * same state after reloading from the journal, the JSON and binary snapshots
+ * and the mapped loader. Exits with status 1 on any discrepancy.
+ *
+ * Options: --events=8 --capacity=50 --threads=64 --operations=5000 (per thread)
+ */
+public class CapacityStress {
+    private final int eventCount;
+    private final int capacity;
+    private final int threads;
+    private final int operations;
+
+    private final AtomicLong seated = new AtomicLong();
+    private final AtomicLong waitlisted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+    private final AtomicLong overCapacity = new AtomicLong();
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+    private CapacityStress(Map<String, String> options) {
+        this.eventCount = Integer.parseInt(options.getOrDefault("events", "8"));
+        this.capacity = Integer.parseInt(options.getOrDefault("capacity", "50"));
+        this.threads = Integer.parseInt(options.getOrDefault("threads", "64"));
+        this.operations = Integer.parseInt(options.getOrDefault("operations", "5000"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("Unknown argument: " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        System.exit(new CapacityStress(options).run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        Path directory = Files.createTempDirectory("capacity-stress");
+        try {
+            String file = directory.resolve("events.json").toString();
+            Files.writeString(Path.of(file), "[]");
+            EventManagerApp app = new EventManagerApp(file);
+            app.loadEvents();
+            for (int e = 0; e < eventCount; e++) {
+                app.createEvent("Event " + e, "2026-06-01", "Hall " + e, "conference", capacity);
+            }
+
+            long started = System.nanoTime();
+            contend(app);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            long total = (long) threads * operations;
+            System.out.printf("%d threads x %d operations on %d events of capacity %d: %.0f ops/s%n",
+                    threads, operations, eventCount, capacity, total / seconds);
+            System.out.printf("seated %d, waitlisted %d, duplicates %d, removed %d%n",
+                    seated.get(), waitlisted.get(), duplicates.get(), removed.get());
+
+            if (overCapacity.get() > 0) failures.add("seat count seen above capacity " + overCapacity.get() + " times");
+            checkCounts(app);
+            app.shutdown();
+
+            Map<String, String> expected = describe(app);
+            compare("journal replay", expected, load(file, EventManagerApp.LoadMode.STREAMING));
+            app.compactEvents();
+            compare("binary snapshot", expected, load(file, EventManagerApp.LoadMode.STREAMING));
+            compare("JSON snapshot", expected, load(file, EventManagerApp.LoadMode.PARALLEL));
+            compare("mapped load", expected, load(file, EventManagerApp.LoadMode.MAPPED));
+
+            // Unlimited capacity seats the whole waitlist
+            for (Event event : app.getAllEvents()) {
+                int registrations = event.getAttendeeCount() + event.getWaitlistCount();
+                app.setCapacity(event.getTitle(), 0);
+                if (event.getWaitlistCount() != 0 || event.getAttendeeCount() != registrations) {
+                    failures.add(event.getTitle() + ": waitlist not seated when the capacity was lifted");
+                }
+            }
+
+            failures.forEach(failure -> System.out.println("FAIL " + failure));
+            System.out.println(failures.isEmpty() ? "OK" : failures.size() + " failures");
+            return failures.isEmpty();
+        } finally {
+            try (var files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private void contend(EventManagerApp app) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Event> events = app.getAllEvents();
+        Thread watcher = new Thread(() -> {
+            while (running.get()) {
+                for (Event event : events) {
+                    if (event.getAttendeeCount() > capacity) overCapacity.incrementAndGet();
+                }
+            }
+        });
+        watcher.start();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        try (RegistrationQueue queue = new RegistrationQueue(app)) {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                workers.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                        work(app, thread % 2 == 0 ? null : queue, thread);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        failures.add("worker " + thread + ": " + e);
+                    }
+                }));
+            }
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        running.set(false);
+        watcher.join();
+    }
+
+    // Each thread registers its own emails, so it can re-register and remove
+    // them knowing what the outcome must be
+    private void work(EventManagerApp app, RegistrationQueue queue, int thread) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String[]> mine = new ArrayList<>(); // {title, email}
+        for (int i = 0; i < operations; i++) {
+            int dice = random.nextInt(10);
+            if (dice < 2 && !mine.isEmpty()) {
+                String[] registration = mine.remove(random.nextInt(mine.size()));
+                Event event = app.findEventByTitle(registration[0]).orElseThrow();
+                int count = app.removeAttendees(registration[0], event.attendeeIdsFor(registration[1]));
+                if (count != 1) failures.add("removing " + registration[1] + " removed " + count);
+                removed.addAndGet(count);
+            } else if (dice < 3 && !mine.isEmpty()) {
+                String[] registration = mine.get(random.nextInt(mine.size()));
+                Event.RegistrationOutcome outcome = register(app, queue, registration[0], registration[1]);
+                if (outcome != Event.RegistrationOutcome.DUPLICATE) failures.add("re-registering " + registration[1] + " gave " + outcome);
+                duplicates.incrementAndGet();
+            } else {
+                String title = "Event " + random.nextInt(eventCount);
+                String email = "t" + thread + "." + i + "@stress.example";
+                Event.RegistrationOutcome outcome = register(app, queue, title, email);
+                switch (outcome) {
+                    case REGISTERED -> seated.incrementAndGet();
+                    case WAITLISTED -> waitlisted.incrementAndGet();
+                    default -> failures.add("registering " + email + " gave " + outcome);
+                }
+                mine.add(new String[]{title, email});
+            }
+        }
+    }
+
+    private static Event.RegistrationOutcome register(EventManagerApp app, RegistrationQueue queue, String title, String email) {
+        if (queue == null) return app.registerAttendee(title, "Stress Tester", email, Event.DedupPolicy.REJECT);
+        return queue.submit(title, new Attendee("Stress Tester", email), Event.DedupPolicy.REJECT).join().outcome();
+    }
+
+    private void checkCounts(EventManagerApp app) {
+        long registrations = 0;
+        for (Event event : app.getAllEvents()) {
+            List<Attendee> attendees = event.getAttendees();
+            List<Attendee> waitlist = event.getWaitlist();
+            if (attendees.size() != event.getAttendeeCount()) {
+                failures.add(event.getTitle() + ": seat counter " + event.getAttendeeCount() + " but " + attendees.size() + " seated");
+            }
+            if (attendees.size() > capacity) failures.add(event.getTitle() + ": " + attendees.size() + " seated over capacity " + capacity);
+            if (!waitlist.isEmpty() && attendees.size() < capacity) {
+                failures.add(event.getTitle() + ": " + waitlist.size() + " waiting with " + (capacity - attendees.size()) + " seats free");
+            }
+            Set<Long> ids = new HashSet<>();
+            attendees.forEach(attendee -> ids.add(attendee.getId()));
+            waitlist.forEach(attendee -> ids.add(attendee.getId()));
+            if (ids.size() != attendees.size() + waitlist.size()) failures.add(event.getTitle() + ": duplicate attendee ids");
+            registrations += attendees.size() + waitlist.size();
+        }
+        long expected = seated.get() + waitlisted.get() - removed.get();
+        if (registrations != expected) failures.add("found " + registrations + " registrations, expected " + expected);
+    }
+
+    private static EventManagerApp load(String file, EventManagerApp.LoadMode mode) {
+        EventManagerApp app = new EventManagerApp(file);
+        app.loadEvents(mode);
+        return app;
+    }
+
+    // Seat and waitlist ids per event, in order
+    private static Map<String, String> describe(EventManagerApp app) {
+        Map<String, String> description = new TreeMap<>();
+        for (Event event : app.getAllEvents()) {
+            description.put(event.getTitle(), event.getCapacity() + " " + ids(event.getAttendees()) + " " + ids(event.getWaitlist()));
+        }
+        return description;
+    }
+
+    private static String ids(List<Attendee> attendees) {
+        return attendees.stream().map(attendee -> attendee.getId() + ":" + attendee.getEmail()).toList().toString();
+    }
+
+    private void compare(String what, Map<String, String> expected, EventManagerApp reloaded) {
+        if (!expected.equals(describe(reloaded))) failures.add(what + " does not match the state it saved");
+    }
+}
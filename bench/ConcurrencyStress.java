@@ -0,0 +1,236 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lost-update stress check for the concurrent EventManagerApp core. Worker
+ * threads register and remove attendees on a few shared events while others
+ * create, fill and delete events of their own, a saver flushes the journal
+ * (triggering background compactions as it grows) and a reader queries
+ * throughout. Every thread records what it changed; afterwards each event
+ * must hold exactly the attendees its changes left there, in memory and
+ * after reloading from the journal, the JSON and binary snapshots and the
+ * mapped loader. Exits with status 1 on any discrepancy.
+ *
+ * Options: --events=4 --threads=16 --churners=4 --operations=2000 (per thread)
+ */
+public class ConcurrencyStress {
+    private final int eventCount;
+    private final int threads;
+    private final int churners;
+    private final int operations;
+
+    // Title -> emails that should be registered there once everything has run
+    private final Map<String, Set<String>> expected = new ConcurrentHashMap<>();
+    private final AtomicLong registered = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong saves = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+    private ConcurrencyStress(Map<String, String> options) {
+        this.eventCount = Integer.parseInt(options.getOrDefault("events", "4"));
+        this.threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        this.churners = Integer.parseInt(options.getOrDefault("churners", "4"));
+        this.operations = Integer.parseInt(options.getOrDefault("operations", "2000"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("Unknown argument: " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        System.exit(new ConcurrencyStress(options).run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        Path directory = Files.createTempDirectory("concurrency-stress");
+        try {
+            String file = directory.resolve("events.json").toString();
+            Files.writeString(Path.of(file), "[]");
+            EventManagerApp app = new EventManagerApp(file);
+            app.loadEvents();
+            for (int e = 0; e < eventCount; e++) {
+                String title = "Shared " + e;
+                app.createEvent(title, "2026-06-01", "Hall " + e, "conference");
+                expected.put(title, ConcurrentHashMap.newKeySet());
+            }
+
+            long started = System.nanoTime();
+            contend(app);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("%d workers and %d churners x %d operations: %.0f ops/s%n",
+                    threads, churners, operations, (double) (threads + churners) * operations / seconds);
+            System.out.printf("registered %d, removed %d, events created %d and deleted %d, %d saves, %d queries%n",
+                    registered.get(), removed.get(), created.get(), deleted.get(), saves.get(), queries.get());
+
+            compare("in memory", app);
+            app.shutdown();
+            compare("journal replay", load(file, EventManagerApp.LoadMode.STREAMING));
+            app.compactEvents();
+            compare("binary snapshot", load(file, EventManagerApp.LoadMode.STREAMING));
+            compare("JSON snapshot", load(file, EventManagerApp.LoadMode.PARALLEL));
+            compare("mapped load", load(file, EventManagerApp.LoadMode.MAPPED));
+
+            failures.forEach(failure -> System.out.println("FAIL " + failure));
+            System.out.println(failures.isEmpty() ? "OK" : failures.size() + " failures");
+            return failures.isEmpty();
+        } finally {
+            try (var files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private void contend(EventManagerApp app) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> background = List.of(
+                new Thread(() -> {
+                    while (running.get()) {
+                        app.saveEvents();
+                        saves.incrementAndGet();
+                    }
+                }),
+                new Thread(() -> {
+                    while (running.get()) {
+                        query(app);
+                        queries.incrementAndGet();
+                    }
+                }));
+        background.forEach(Thread::start);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads + churners; t++) {
+            int thread = t;
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    if (thread < threads) {
+                        work(app, thread);
+                    } else {
+                        churn(app, thread);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    failures.add("thread " + thread + ": " + e);
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        running.set(false);
+        for (Thread thread : background) {
+            thread.join();
+        }
+    }
+
+    // Registers and removes this thread's own emails on the shared events
+    private void work(EventManagerApp app, int thread) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String[]> mine = new ArrayList<>(); // {title, email}
+        for (int i = 0; i < operations; i++) {
+            if (random.nextInt(4) == 0 && !mine.isEmpty()) {
+                String[] registration = mine.remove(random.nextInt(mine.size()));
+                Event event = app.findEventByTitle(registration[0]).orElseThrow();
+                int count = app.removeAttendees(registration[0], event.attendeeIdsFor(registration[1]));
+                if (count != 1) failures.add("removing " + registration[1] + " removed " + count);
+                expected.get(registration[0]).remove(registration[1]);
+                removed.incrementAndGet();
+            } else {
+                String title = "Shared " + random.nextInt(eventCount);
+                String email = "w" + thread + "." + i + "@stress.example";
+                Event.RegistrationOutcome outcome = app.registerAttendee(title, "Stress Tester", email, Event.DedupPolicy.REJECT);
+                if (outcome != Event.RegistrationOutcome.REGISTERED) failures.add("registering " + email + " gave " + outcome);
+                expected.get(title).add(email);
+                mine.add(new String[]{title, email});
+                registered.incrementAndGet();
+            }
+        }
+    }
+
+    // Creates events of its own, registers a few attendees and deletes some
+    // of them again, so the write lock contends with the registrations
+    private void churn(EventManagerApp app, int thread) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> mine = new ArrayList<>();
+        for (int i = 0; i < operations; i++) {
+            int dice = random.nextInt(4);
+            if (dice == 0 && !mine.isEmpty()) {
+                String title = mine.remove(random.nextInt(mine.size()));
+                if (!app.deleteEvent(title)) failures.add("deleting " + title + " found nothing");
+                expected.remove(title);
+                deleted.incrementAndGet();
+            } else if (dice == 1 || mine.isEmpty()) {
+                String title = "Churn " + thread + "." + i;
+                app.createEvent(title, "2026-07-01", "Room " + thread, "workshop");
+                expected.put(title, ConcurrentHashMap.newKeySet());
+                mine.add(title);
+                created.incrementAndGet();
+            } else {
+                String title = mine.get(random.nextInt(mine.size()));
+                String email = "c" + thread + "." + i + "@stress.example";
+                Event.RegistrationOutcome outcome = app.registerAttendee(title, "Churn Tester", email, Event.DedupPolicy.REJECT);
+                if (outcome != Event.RegistrationOutcome.REGISTERED) failures.add("registering " + email + " gave " + outcome);
+                expected.get(title).add(email);
+                registered.incrementAndGet();
+            }
+        }
+    }
+
+    // Shared events are never deleted, so the title index must always find them
+    private void query(EventManagerApp app) {
+        for (int e = 0; e < eventCount; e++) {
+            if (app.findEventByTitle("Shared " + e).isEmpty()) failures.add("Shared " + e + " not found by title while running");
+        }
+        for (Event event : app.getAllEvents()) {
+            List<Attendee> attendees = event.getAttendees();
+            Set<Long> ids = new HashSet<>();
+            attendees.forEach(attendee -> ids.add(attendee.getId()));
+            if (ids.size() != attendees.size()) failures.add(event.getTitle() + ": duplicate attendee ids while running");
+        }
+        app.findEventsByType("conference");
+        app.searchEvents("hall");
+    }
+
+    private static EventManagerApp load(String file, EventManagerApp.LoadMode mode) {
+        EventManagerApp app = new EventManagerApp(file);
+        app.loadEvents(mode);
+        return app;
+    }
+
+    private void compare(String what, EventManagerApp app) {
+        Map<String, Set<String>> actual = new TreeMap<>();
+        for (Event event : app.getAllEvents()) {
+            Set<String> emails = new TreeSet<>();
+            event.getAttendees().forEach(attendee -> emails.add(attendee.getEmail()));
+            if (actual.put(event.getTitle(), emails) != null) failures.add(what + ": " + event.getTitle() + " listed twice");
+        }
+        Map<String, Set<String>> wanted = new TreeMap<>();
+        expected.forEach((title, emails) -> wanted.put(title, new TreeSet<>(emails)));
+        if (!wanted.keySet().equals(actual.keySet())) {
+            failures.add(what + ": " + actual.size() + " events, expected " + wanted.size());
+            return;
+        }
+        long lost = 0, extra = 0;
+        for (Map.Entry<String, Set<String>> entry : wanted.entrySet()) {
+            Set<String> have = actual.get(entry.getKey());
+            lost += entry.getValue().stream().filter(email -> !have.contains(email)).count();
+            extra += have.stream().filter(email -> !entry.getValue().contains(email)).count();
+        }
+        if (lost > 0 || extra > 0) failures.add(what + ": " + lost + " registrations lost, " + extra + " unexpected");
+    }
+}
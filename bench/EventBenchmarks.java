@@ -0,0 +1,289 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks for the parse, serialize, query and table-model paths over
+ * synthetic datasets of increasing size.
+ *
+ * heap.* rows report the heap retained by each loader's result in bytes per
+ * event instead of ns/op, and in the last column how many of its date,
+ * location and type strings are duplicate copies of a value already held.
+ *
+ * JMH cannot generate its harness for classes in the default package, which
+ * is where the application lives, so this runner does the same job in
+ * miniature: time-boxed warmup iterations, then measured iterations reported
+ * as mean and standard deviation per operation, with results folded into a
+ * sink so the JIT cannot discard the work.
+ *
+ * Options: --sizes=1000,10000 --attendees=5 --warmup=3 --iterations=5
+ *          --time=500 (milliseconds per iteration) --filter=query
+ *          --threads=16 (parallel parse)
+ */
+public class EventBenchmarks {
+    private static final long SEED = 42;
+
+    private static long sink;
+
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final long iterationNanos;
+    private final String filter;
+    private final int threads;
+
+    private EventBenchmarks(Map<String, String> options) {
+        this.warmupIterations = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        this.measuredIterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+        this.iterationNanos = Long.parseLong(options.getOrDefault("time", "500")) * 1_000_000L;
+        this.filter = options.getOrDefault("filter", "");
+        this.threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("Unknown argument: " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int[] sizes = Arrays.stream(options.getOrDefault("sizes", "1000,10000,100000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int attendees = Integer.parseInt(options.getOrDefault("attendees", "5"));
+
+        EventBenchmarks benchmarks = new EventBenchmarks(options);
+        System.out.printf("%-32s %10s %16s %12s%n", "Benchmark", "Events", "ns/op", "+/-");
+        for (int size : sizes) {
+            benchmarks.runDataset(size, attendees);
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private void runDataset(int size, int attendeesPerEvent) throws Exception {
+        Path directory = Files.createTempDirectory("event-bench");
+        try {
+            List<Event> events = SyntheticEvents.generate(size, attendeesPerEvent, SEED);
+            Path json = directory.resolve("events.json");
+            SyntheticEvents.writeJson(events, json);
+            String file = json.toString();
+
+            // Parse
+            bench("parse.loadEventsFromFile", size, 1, () -> Event.EventJsonParser.loadEventsFromFile(file).size());
+            bench("parse.mapped", size, 1, () -> MappedEventLoader.load(file).size());
+            bench("parse.parallel", size, 1, () -> Event.EventJsonParser.loadEventsParallel(file, threads).size());
+
+            // Heap, attendees decoded
+            new EventBinarySnapshot(file).write(events);
+            heap("heap.loadEventsFromFile", size, () -> Event.EventJsonParser.loadEventsFromFile(file));
+            heap("heap.mapped", size, () -> MappedEventLoader.load(file));
+            heap("heap.parallel", size, () -> Event.EventJsonParser.loadEventsParallel(file, threads));
+            heap("heap.binarySnapshot", size, () -> new EventBinarySnapshot(file).read());
+
+            // Serialize
+            bench("serialize.convertToJson", size, size, () -> {
+                long length = 0;
+                for (Event event : events) length += event.convertToJson().length();
+                return length;
+            });
+            bench("serialize.writeJson", size, size, () -> {
+                CountingChannel channel = new CountingChannel();
+                EventJsonWriter out = new EventJsonWriter(channel);
+                for (Event event : events) event.writeJson(out);
+                out.flush();
+                return channel.count;
+            });
+            EventManagerApp app = new EventManagerApp(file);
+            app.loadEvents();
+            bench("save.compactEvents", size, 1, () -> {
+                app.compactEvents();
+                return 0;
+            });
+            String firstTitle = events.get(0).getTitle();
+            long[] registration = {0};
+            bench("save.journalAppend", size, 1, () -> {
+                long n = registration[0]++;
+                app.registerAttendee(firstTitle, "Bench User", "bench." + n + "@example.com");
+                app.saveEvents();
+                return n;
+            });
+            // Concurrent clients, each waiting for its registration to be durable
+            int clients = 256;
+            int perClient = 16;
+            try (RegistrationQueue queue = new RegistrationQueue(app)) {
+                bench("save.registrationQueue", size, clients * perClient, () -> {
+                    long base = registration[0];
+                    registration[0] += clients * perClient;
+                    long[] stored = new long[clients];
+                    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                        for (int c = 0; c < clients; c++) {
+                            int client = c;
+                            executor.submit(() -> {
+                                for (int i = 0; i < perClient; i++) {
+                                    long n = base + (long) client * perClient + i;
+                                    Attendee attendee = new Attendee("Bench User", "bench." + n + "@example.com");
+                                    if (queue.submit(firstTitle, attendee, Event.DedupPolicy.REJECT).join() != null) stored[client]++;
+                                }
+                            });
+                        }
+                    }
+                    return Arrays.stream(stored).sum();
+                });
+            }
+
+            // Queries
+            Random random = new Random(SEED);
+            String[] titles = new String[1024];
+            for (int i = 0; i < titles.length; i++) {
+                titles[i] = events.get(random.nextInt(size)).getTitle();
+            }
+            bench("query.findEventByTitle", size, titles.length, () -> {
+                long found = 0;
+                for (String title : titles) {
+                    if (app.findEventByTitle(title).isPresent()) found++;
+                }
+                return found;
+            });
+            bench("query.findEventsByType", size, SyntheticEvents.TYPES.length, () -> {
+                long found = 0;
+                for (String type : SyntheticEvents.TYPES) {
+                    found += app.findEventsByType(type.toUpperCase(Locale.ROOT)).size();
+                }
+                return found;
+            });
+
+            LocalDate[] months = new LocalDate[96];
+            for (int i = 0; i < months.length; i++) {
+                months[i] = LocalDate.of(2020, 1, 1).plusMonths(i);
+            }
+            bench("query.findEventsBetween", size, months.length, () -> {
+                long found = 0;
+                for (LocalDate month : months) {
+                    found += app.findEventsBetween(month, month.plusMonths(1).minusDays(1)).size();
+                }
+                return found;
+            });
+
+            String[] emails = new String[64];
+            for (int i = 0; i < emails.length; i++) {
+                List<Attendee> attendees = events.get(random.nextInt(size)).getAttendees();
+                emails[i] = attendees.isEmpty() ? "nobody@example.com" : attendees.get(random.nextInt(attendees.size())).getEmail();
+            }
+            bench("query.searchAttendees", size, emails.length, () -> {
+                long found = 0;
+                for (String email : emails) {
+                    found += app.searchAttendees(email).size();
+                }
+                return found;
+            });
+
+            // Table model, reading a viewport-sized window at random offsets
+            EventTableModel model = new EventTableModel(events);
+            int[] rows = random.ints(4096, 0, size).toArray();
+            bench("table.getValueAt", size, rows.length * model.getColumnCount(), () -> {
+                long hash = 0;
+                for (int row : rows) {
+                    for (int column = 0; column < model.getColumnCount(); column++) {
+                        hash += Objects.hashCode(model.getValueAt(row, column));
+                    }
+                }
+                return hash;
+            });
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    private void bench(String name, int size, int operationsPerCall, Callable<Object> call) throws Exception {
+        if (!name.contains(filter)) return;
+
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(operationsPerCall, call);
+        }
+        double[] results = new double[measuredIterations];
+        for (int i = 0; i < measuredIterations; i++) {
+            results[i] = runIteration(operationsPerCall, call);
+        }
+
+        double mean = Arrays.stream(results).average().orElse(0);
+        double variance = Arrays.stream(results).map(r -> (r - mean) * (r - mean)).sum() / Math.max(1, results.length - 1);
+        System.out.printf("%-32s %10d %16.1f %12.1f%n", name, size, mean, Math.sqrt(variance));
+    }
+
+    private void heap(String name, int size, Callable<List<Event>> load) throws Exception {
+        if (!name.contains(filter)) return;
+
+        long before = usedHeap();
+        List<Event> loaded = load.call();
+        for (Event event : loaded) {
+            sink += event.getAttendees().size();
+        }
+        long retained = usedHeap() - before;
+
+        Map<String, String> values = new HashMap<>();
+        Set<String> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Event event : loaded) {
+            for (String value : new String[]{event.getDate(), event.getLocation(), event.getType()}) {
+                values.putIfAbsent(value, value);
+                instances.add(value);
+            }
+        }
+        System.out.printf("%-32s %10d %16.1f %12d%n", name, size, retained / (double) size, instances.size() - values.size());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Returns nanoseconds per operation; always completes at least one call
+    private double runIteration(int operationsPerCall, Callable<Object> call) throws Exception {
+        long calls = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            sink += Objects.hashCode(call.call());
+            calls++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        return (double) elapsed / (calls * operationsPerCall);
+    }
+
+    // Discards bytes, so serialization is measured without disk I/O
+    private static class CountingChannel implements WritableByteChannel {
+        private long count;
+
+        @Override
+        public int write(ByteBuffer source) {
+            int length = source.remaining();
+            source.position(source.limit());
+            count += length;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
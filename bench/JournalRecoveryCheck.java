@@ -0,0 +1,243 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Recovery check for failed journal flushes. Registrations go through a
+ * RegistrationQueue whose journal channel fails on purpose now and then:
+ * either a write lands only part of the batch and throws, or the write
+ * succeeds and the force throws. A batch that hits a failure must fail its
+ * futures; every registration, acknowledged or failed and written by a later
+ * flush, must then come back when the journal is replayed, exactly once, and
+ * again after the journal has been compacted into the snapshot. Exits with
+ * status 1 on any discrepancy.
+ *
+ * Options: --rounds=500 --batch=20 --failures=30 (percent of rounds)
+ */
+public class JournalRecoveryCheck {
+    private enum Fault {
+        NONE,
+        PARTIAL_WRITE, // some bytes of the next write land, then it throws
+        FORCE          // the next write lands, then the force throws
+    }
+
+    private final int rounds;
+    private final int batch;
+    private final int failurePercent;
+
+    private volatile Fault armed = Fault.NONE;
+    private long acknowledged;
+    private long failed;
+    private long acknowledgedAfterFailure;
+    private final List<String> failures = new ArrayList<>();
+
+    private JournalRecoveryCheck(Map<String, String> options) {
+        this.rounds = Integer.parseInt(options.getOrDefault("rounds", "500"));
+        this.batch = Integer.parseInt(options.getOrDefault("batch", "20"));
+        this.failurePercent = Integer.parseInt(options.getOrDefault("failures", "30"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("Unknown argument: " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        System.exit(new JournalRecoveryCheck(options).run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        Path directory = Files.createTempDirectory("journal-recovery");
+        try {
+            String file = directory.resolve("events.json").toString();
+            Files.writeString(Path.of(file), "[]");
+            EventManagerApp app = new EventManagerApp(file, path -> new FaultyChannel(EventJournal.ChannelOpener.DEFAULT.open(path)));
+            app.loadEvents();
+            app.createEvent("Recovery", "2026-06-01", "Hall", "conference");
+            app.saveEventsDurably();
+
+            Set<String> registered = new TreeSet<>();
+            boolean failedBefore = false;
+            try (RegistrationQueue queue = new RegistrationQueue(app)) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int round = 0; round < rounds; round++) {
+                    int dice = random.nextInt(100);
+                    armed = dice >= failurePercent ? Fault.NONE : dice % 2 == 0 ? Fault.PARTIAL_WRITE : Fault.FORCE;
+                    List<CompletableFuture<EventManagerApp.RegistrationResult>> results = new ArrayList<>();
+                    for (int i = 0; i < batch; i++) {
+                        String email = "r" + round + "." + i + "@example.com";
+                        results.add(queue.submit("Recovery", new Attendee("Recovery Tester", email), Event.DedupPolicy.REJECT));
+                        registered.add(email);
+                    }
+                    for (CompletableFuture<EventManagerApp.RegistrationResult> result : results) {
+                        try {
+                            Event.RegistrationOutcome outcome = result.get().outcome();
+                            if (outcome != Event.RegistrationOutcome.REGISTERED) failures.add("round " + round + " gave " + outcome);
+                            acknowledged++;
+                            if (failedBefore) acknowledgedAfterFailure++;
+                        } catch (ExecutionException e) {
+                            if (!(e.getCause() instanceof IOException)) failures.add("round " + round + " failed with " + e.getCause());
+                            failed++;
+                            failedBefore = true;
+                        }
+                    }
+                }
+            }
+            armed = Fault.NONE;
+            app.saveEventsDurably(); // writes whatever the last failed flush left behind
+            System.out.printf("%d rounds of %d: %d acknowledged (%d after a failure), %d failed%n",
+                    rounds, batch, acknowledged, acknowledgedAfterFailure, failed);
+
+            // A second app replays the journal the first one wrote, failures and all
+            compare("journal replay", load(file), registered);
+            app.shutdown();
+            compare("compacted snapshot", load(file), registered);
+
+            failures.forEach(failure -> System.out.println("FAIL " + failure));
+            System.out.println(failures.isEmpty() ? "OK" : failures.size() + " failures");
+            return failures.isEmpty();
+        } finally {
+            try (var files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static EventManagerApp load(String file) {
+        EventManagerApp app = new EventManagerApp(file);
+        app.loadEvents();
+        return app;
+    }
+
+    private void compare(String what, EventManagerApp app, Set<String> registered) {
+        List<String> emails = new ArrayList<>();
+        app.getEventAttendees("Recovery").forEach(attendee -> emails.add(attendee.getEmail()));
+        Set<String> unique = new TreeSet<>(emails);
+        if (unique.size() != emails.size()) failures.add(what + ": " + (emails.size() - unique.size()) + " registrations replayed twice");
+        long lost = registered.stream().filter(email -> !unique.contains(email)).count();
+        long extra = unique.stream().filter(email -> !registered.contains(email)).count();
+        if (lost > 0 || extra > 0) failures.add(what + ": " + lost + " registrations lost, " + extra + " unexpected");
+    }
+
+    // Delegates to the real journal channel, failing the write or force the armed fault names
+    private final class FaultyChannel extends FileChannel {
+        private final FileChannel channel;
+
+        FaultyChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private Fault take(Fault fault) {
+            if (armed != fault) return Fault.NONE;
+            armed = Fault.NONE;
+            return fault;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (src.remaining() > 1 && take(Fault.PARTIAL_WRITE) == Fault.PARTIAL_WRITE) {
+                int landed = ThreadLocalRandom.current().nextInt(1, src.remaining());
+                ByteBuffer part = src.slice().limit(landed);
+                channel.write(part);
+                src.position(src.position() + landed);
+                throw new IOException("Injected failure after " + landed + " bytes");
+            }
+            return channel.write(src);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (take(Fault.FORCE) == Fault.FORCE) throw new IOException("Injected force failure");
+            channel.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic generator of realistic-looking event data for benchmarks.
+ * Types, cities and email domains repeat heavily, as they do in production
+ * archives; titles, names and email local parts are unique.
+ */
+final class SyntheticEvents {
+    static final String[] TYPES = {"conference", "festival", "networking", "competition", "exhibition", "workshop", "meetup", "webinar"};
+    private static final String[] CITIES = {"San Francisco, CA", "Los Angeles, CA", "New York City, NY", "Boston, MA", "Chicago, IL",
+            "Seattle, WA", "Austin, TX", "Portland, OR", "Miami, FL", "Denver, CO", "Delhi", "Mumbai", "London", "Berlin",
+            "Paris", "Tokyo", "Sydney", "Toronto", "Cannes, France", "Las Vegas, NV"};
+    private static final String[] TOPICS = {"Tech", "Music", "Business", "Startup", "Marketing", "AI", "Writing", "Food", "Health", "Gaming"};
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Charlie", "Diana", "Ethan", "Fiona", "George", "Hannah", "Ivan", "Julia",
+            "Kaustav", "Rishita", "Neha", "Samuel", "Tina", "Uma", "Victor", "Wendy"};
+    private static final String[] LAST_NAMES = {"Johnson", "Smith", "Brown", "Prince", "Hunt", "Gallagher", "Miller", "Adams", "Verma", "Das"};
+    private static final String[] DOMAINS = {"example.com", "gmail.com", "outlook.com", "company.org", "university.edu", "yahoo.com"};
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+
+    private SyntheticEvents() {
+    }
+
+    static List<Event> generate(int count, int attendeesPerEvent, long seed) {
+        Random random = new Random(seed);
+        List<Event> events = new ArrayList<>(count);
+        long attendeeId = 0;
+        for (int i = 0; i < count; i++) {
+            String topic = TOPICS[random.nextInt(TOPICS.length)];
+            Event event = new Event(
+                    topic + " Event " + i,
+                    FIRST_DATE.plusDays(random.nextInt(365 * 8)).toString(),
+                    CITIES[random.nextInt(CITIES.length)],
+                    TYPES[random.nextInt(TYPES.length)]);
+            for (int j = 0; j < attendeesPerEvent; j++) {
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                String email = (first + "." + last + "." + attendeeId++).toLowerCase(Locale.ROOT) + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+                event.registerAttendee(new Attendee(first + " " + last, email));
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    static void writeJson(List<Event> events, Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int i = 0; i < events.size(); i++) {
+                writer.write(events.get(i).convertToJson());
+                writer.write(i < events.size() - 1 ? ",\n" : "\n");
+            }
+            writer.write("]\n");
+        }
+    }
+}
@@ -1,36 +1,58 @@
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Objects;
 
 public final class Attendee {
+    private final long id; // assigned by the event on registration; 0 until then
     private final String name;
     private final String email;
 
     public Attendee(String name, String email) {
+        this(0, name, email);
+    }
+
+    Attendee(long id, String name, String email) {
+        this.id = id;
         this.name = Objects.requireNonNullElse(name, "");
         this.email = Objects.requireNonNullElse(email, "");
     }
 
+    Attendee withId(long id) {
+        return id == this.id ? this : new Attendee(id, name, email);
+    }
+
     public static Attendee fromJson(String json) {
         if (json == null || json.trim().isEmpty()) {
             return null;
         }
 
-        String normalizedJson = normalizeJson(json);
-        String name = extractJsonValue(normalizedJson, "name");
-        String email = extractJsonValue(normalizedJson, "email");
-
-        return new Attendee(name, email);
+        try {
+            return Event.EventJsonParser.readAttendee(new JsonTokenizer(new StringReader(normalizeJson(json))));
+        } catch (IOException e) {
+            return null;
+        }
     }
 
     public String toAttendeeJson() {
-        return String.format("{\"name\":\"%s\",\"email\":\"%s\"}",
-                escapeJson(name), escapeJson(email));
+        return EventJsonWriter.toJson(this::writeJson);
+    }
+
+    void writeJson(EventJsonWriter out) throws IOException {
+        if (id > 0) {
+            out.writeAscii("{\"id\":");
+            out.writeLong(id);
+            out.writeAscii(",\"name\":");
+        } else {
+            out.writeAscii("{\"name\":");
+        }
+        out.writeString(name);
+        out.writeAscii(",\"email\":");
+        out.writeString(email);
+        out.writeByte('}');
     }
 
     public boolean isValid() {
-        return !name.isBlank() &&
-                email.contains("@") &&
-                email.indexOf('@') > 0 &&
-                email.indexOf('@') < email.length() - 1;
+        return !name.isBlank() && Validators.hasEmailShape(email);
     }
 
     private static String normalizeJson(String json) {
@@ -40,33 +62,6 @@ public final class Attendee {
         return trimmed;
     }
 
-    private static String extractJsonValue(String json, String key) {
-        String keyPattern = "\"" + key + "\":\"";
-        int keyIndex = json.indexOf(keyPattern);
-        if (keyIndex == -1) return "";
-
-        int valueStart = keyIndex + keyPattern.length();
-        int valueEnd = json.indexOf("\"", valueStart);
-        return valueEnd > valueStart ?
-                unescapeJson(json.substring(valueStart, valueEnd)) : "";
-    }
-
-    private static String escapeJson(String input) {
-        return input.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
-    }
-
-    private static String unescapeJson(String input) {
-        return input.replace("\\\"", "\"")
-                .replace("\\n", "\n")
-                .replace("\\r", "\r")
-                .replace("\\t", "\t")
-                .replace("\\\\", "\\");
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -86,6 +81,7 @@ public final class Attendee {
     }
 
     // Getters
+    public long getId() { return id; }
     public String getName() { return name; }
     public String getEmail() { return email; }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from a normalized email address to the events it is
+ * registered for. Most addresses belong to a single event, so that case is
+ * stored as the Event itself and only addresses spanning several events get
+ * an array. Updates to different addresses proceed in parallel.
+ */
+final class AttendeeEmailIndex {
+    private final Map<String, Object> eventsByEmail = new ConcurrentHashMap<>(); // Event or Event[]
+
+    void add(String email, Event event) {
+        eventsByEmail.compute(Event.emailKey(email), (key, current) -> {
+            if (current == null) return event;
+            Event[] events = current instanceof Event single ? new Event[]{single} : (Event[]) current;
+            for (Event registered : events) {
+                if (registered == event) return current;
+            }
+            Event[] grown = Arrays.copyOf(events, events.length + 1);
+            grown[events.length] = event;
+            return grown;
+        });
+    }
+
+    void addAll(Event event, List<Attendee> attendees) {
+        for (Attendee attendee : attendees) {
+            add(attendee.getEmail(), event);
+        }
+    }
+
+    void remove(String email, Event event) {
+        eventsByEmail.computeIfPresent(Event.emailKey(email), (key, current) -> {
+            if (current == event) return null;
+            if (current instanceof Event) return current;
+            Event[] events = (Event[]) current;
+            for (int i = 0; i < events.length; i++) {
+                if (events[i] != event) continue;
+                if (events.length == 2) return events[1 - i];
+                Event[] shrunk = new Event[events.length - 1];
+                System.arraycopy(events, 0, shrunk, 0, i);
+                System.arraycopy(events, i + 1, shrunk, i, events.length - i - 1);
+                return shrunk;
+            }
+            return current;
+        });
+    }
+
+    List<Event> find(String email) {
+        if (email == null) return new ArrayList<>();
+        Object current = eventsByEmail.get(Event.emailKey(email));
+        if (current == null) return new ArrayList<>();
+        if (current instanceof Event single) return new ArrayList<>(List.of(single));
+        return new ArrayList<>(Arrays.asList((Event[]) current));
+    }
+}
@@ -0,0 +1,254 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Streams attendee registrations from a CSV or JSON-lines file into the app.
+ * Rows are read in batches; each batch has its emails validated in parallel
+ * and is then registered one event at a time, so an event is locked and
+ * notified once per batch rather than once per attendee. Bad rows are
+ * collected into the report instead of stopping the import.
+ *
+ * CSV files start with a header naming the event, name and email columns in
+ * any order. JSON-lines files hold one {"event":..,"name":..,"email":..}
+ * object per line.
+ */
+public final class AttendeeImporter {
+    public record Report(int rows, int imported, int failed, List<String> errors) {
+        public String summary() {
+            return String.format("Imported %d of %d rows, %d failed", imported, rows, failed);
+        }
+    }
+
+    private record Row(int line, String event, String name, String email) {
+    }
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final EventManagerApp app;
+    private final Event.DedupPolicy policy;
+    private int rows;
+    private int imported;
+    private int failed;
+    private final List<String> errors = new ArrayList<>();
+
+    public AttendeeImporter(EventManagerApp app, Event.DedupPolicy policy) {
+        this.app = app;
+        this.policy = policy;
+    }
+
+    // Picks the format from the file extension: .csv, anything else is JSON lines
+    public Report importFile(String filePath) throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8), 1 << 16)) {
+            return filePath.toLowerCase(Locale.ROOT).endsWith(".csv") ? importCsv(reader) : importJsonLines(reader);
+        }
+    }
+
+    public Report importCsv(Reader reader) throws IOException {
+        reset();
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) return report();
+        int eventColumn = -1, nameColumn = -1, emailColumn = -1;
+        for (int i = 0; i < header.size(); i++) {
+            switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "event", "title", "event title" -> eventColumn = i;
+                case "name" -> nameColumn = i;
+                case "email" -> emailColumn = i;
+                default -> {
+                }
+            }
+        }
+        if (eventColumn < 0 || nameColumn < 0 || emailColumn < 0) {
+            throw new IOException("CSV header must name event, name and email columns");
+        }
+
+        List<Row> batch = new ArrayList<>(BATCH_SIZE);
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) continue;
+            rows++;
+            int line = csv.recordLine();
+            if (record.size() <= Math.max(eventColumn, Math.max(nameColumn, emailColumn))) {
+                fail(line, "expected " + header.size() + " columns, found " + record.size());
+                continue;
+            }
+            batch.add(new Row(line, record.get(eventColumn).trim(), record.get(nameColumn).trim(), record.get(emailColumn).trim()));
+            if (batch.size() == BATCH_SIZE) importBatch(batch);
+        }
+        importBatch(batch);
+        return report();
+    }
+
+    public Report importJsonLines(Reader reader) throws IOException {
+        reset();
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<Row> batch = new ArrayList<>(BATCH_SIZE);
+        String text;
+        int line = 0;
+        while ((text = lines.readLine()) != null) {
+            line++;
+            if (text.isBlank()) continue;
+            rows++;
+            try {
+                batch.add(parseJsonRow(line, text));
+            } catch (IOException e) {
+                fail(line, e.getMessage());
+                continue;
+            }
+            if (batch.size() == BATCH_SIZE) importBatch(batch);
+        }
+        importBatch(batch);
+        return report();
+    }
+
+    private static Row parseJsonRow(int line, String text) throws IOException {
+        JsonTokenizer json = new JsonTokenizer(new StringReader(text));
+        String event = "", name = "", email = "";
+        json.beginObject();
+        while (json.hasNext()) {
+            String key = json.nextName();
+            if (json.peek() != JsonTokenizer.Token.STRING) {
+                json.skipValue();
+                continue;
+            }
+            switch (key) {
+                case "event", "title" -> event = json.nextString().trim();
+                case "name" -> name = json.nextString().trim();
+                case "email" -> email = json.nextString().trim();
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        json.endDocument();
+        return new Row(line, event, name, email);
+    }
+
+    private void importBatch(List<Row> batch) {
+        if (batch.isEmpty()) return;
+
+        boolean[] validEmail = new boolean[batch.size()];
+        IntStream.range(0, batch.size()).parallel().forEach(i -> validEmail[i] = Validators.isValidEmail(batch.get(i).email()));
+
+        Map<String, List<Row>> byEvent = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Row row = batch.get(i);
+            if (row.event().isEmpty()) {
+                fail(row.line(), "missing event");
+            } else if (row.name().isEmpty()) {
+                fail(row.line(), "missing name");
+            } else if (!validEmail[i]) {
+                fail(row.line(), "invalid email '" + row.email() + "'");
+            } else {
+                byEvent.computeIfAbsent(row.event(), k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        byEvent.forEach((title, eventRows) -> {
+            if (app.findEventByTitle(title).isEmpty()) {
+                eventRows.forEach(row -> fail(row.line(), "no event titled '" + title + "'"));
+                return;
+            }
+            List<Attendee> attendees = new ArrayList<>(eventRows.size());
+            eventRows.forEach(row -> attendees.add(new Attendee(row.name(), row.email())));
+            List<Attendee> registered = app.registerAttendees(title, attendees, policy);
+            for (int i = 0; i < eventRows.size(); i++) {
+                if (i < registered.size() && registered.get(i) != null) {
+                    imported++;
+                } else {
+                    fail(eventRows.get(i).line(), eventRows.get(i).email() + " is already registered for '" + title + "'");
+                }
+            }
+        });
+        batch.clear();
+    }
+
+    private void fail(int line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) errors.add("Line " + line + ": " + message);
+    }
+
+    private void reset() {
+        rows = imported = failed = 0;
+        errors.clear();
+    }
+
+    private Report report() {
+        return new Report(rows, imported, failed, List.copyOf(errors));
+    }
+
+    // RFC 4180 records: quoted fields may hold commas, doubled quotes and line breaks
+    private static final class CsvReader {
+        private final Reader reader;
+        private final StringBuilder field = new StringBuilder();
+        private int line = 1;
+        private int recordLine;
+        private int pushback = -2;
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        int recordLine() {
+            return recordLine;
+        }
+
+        List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) return null;
+            recordLine = line;
+            List<String> record = new ArrayList<>();
+            boolean quoted = false;
+            field.setLength(0);
+            while (true) {
+                if (quoted) {
+                    if (c == -1) throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            unread(next);
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') unread(next);
+                    }
+                    record.add(field.toString());
+                    return record;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            int c;
+            if (pushback != -2) {
+                c = pushback;
+                pushback = -2;
+                return c;
+            }
+            c = reader.read();
+            if (c == '\n') line++;
+            return c;
+        }
+
+        private void unread(int c) {
+            pushback = c;
+        }
+    }
+}
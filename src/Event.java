@@ -1,134 +1,409 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Attendee state is guarded by the Event's own monitor. The seat count is a
+// lock-free counter: seats are taken by compare-and-set, so it never passes
+// the capacity, and it can be read without the monitor
 public class Event {
+    // What registerAttendee does when the email is already registered
+    public enum DedupPolicy {
+        REJECT,  // Keep the existing registration
+        REPLACE, // Overwrite the existing registration in place
+        ALLOW    // Register the duplicate alongside it
+    }
+
+    // What a registration came to
+    public enum RegistrationOutcome {
+        REGISTERED, // Holds a seat
+        WAITLISTED, // The event is full; seats are offered in waitlist order as they free up
+        DUPLICATE,  // The dedup policy kept the existing registration
+        INVALID,    // Missing name or email
+        NO_EVENT    // No event has the title
+    }
+
     private final String title;
     private final String date;
+    private final LocalDate localDate; // parsed once; null if the date is not YYYY-MM-DD
     private final String location;
     private final String type;
-    private final List<Attendee> attendees;
+    private volatile int capacity; // 0 means unlimited
+    private final AtomicInteger seatsTaken = new AtomicInteger(); // attendees.size(), or the count still to be decoded
+    private LinkedHashMap<Long, Attendee> attendees; // by id, in registration order
+    private LinkedHashMap<Long, Attendee> waitlist; // by id, in arrival order; null until someone waits
+    private final HashMap<String, Registrations> byEmail; // keyed by case-folded email, seated or waitlisted
+    private long nextAttendeeId = 1;
+    private Supplier<List<Attendee>> attendeeLoader;
+    private Consumer<List<Attendee>> decodeListener; // told once the loader's attendees are decoded
+    private List<Attendee> attendeeSnapshot;
+
+    // Registrations sharing one email; there are several only under DedupPolicy.ALLOW
+    private static final class Registrations {
+        long firstId;
+        int count = 1;
+
+        Registrations(long firstId) {
+            this.firstId = firstId;
+        }
+    }
 
     public Event(String title, String date, String location, String type) {
         this.title = title;
         this.date = date;
+        this.localDate = Validators.parseDate(date);
         this.location = location;
         this.type = type;
-        this.attendees = new ArrayList<>();
+        this.attendees = new LinkedHashMap<>();
+        this.byEmail = new HashMap<>();
     }
 
-    // JSON Utility Methods
-    private static String[] splitJsonObjects(String jsonArray) {
-        List<String> objects = new ArrayList<>();
-        int depth = 0;
-        int start = 0;
+    public Event(String title, String date, String location, String type, int capacity) {
+        this(title, date, location, type);
+        if (capacity < 0) throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        this.capacity = capacity;
+    }
 
-        for (int i = 0; i < jsonArray.length(); i++) {
-            char c = jsonArray.charAt(i);
-            if (c == '{' || c == '[') depth++;
-            if (c == '}' || c == ']') depth--;
+    // Attendees are decoded by the loader the first time they are needed
+    Event(String title, String date, String location, String type, int attendeeCount, Supplier<List<Attendee>> attendeeLoader) {
+        this(title, date, location, type);
+        this.seatsTaken.set(attendeeCount);
+        this.attendeeLoader = attendeeLoader;
+    }
 
-            if (c == ',' && depth == 0) {
-                objects.add(jsonArray.substring(start, i).trim());
-                start = i + 1;
-            }
+    // Saved attendees keep their seats whatever the capacity; seatsTaken already counts them
+    private void materializeAttendees() {
+        if (attendeeLoader == null) return;
+        List<Attendee> loaded = attendeeLoader.get();
+        attendeeLoader = null;
+        for (Attendee attendee : loaded) {
+            if (attendee == null || !attendee.isValid()) continue;
+            String key = emailKey(attendee.getEmail());
+            add(attendee, byEmail.get(key), key, true);
         }
-
-        if (start < jsonArray.length()) {
-            objects.add(jsonArray.substring(start).trim());
+        seatsTaken.set(attendees.size());
+        if (decodeListener != null) {
+            Consumer<List<Attendee>> listener = decodeListener;
+            decodeListener = null;
+            listener.accept(List.copyOf(attendees.values()));
         }
+    }
+
+    // Decodes attendees still held by the loader, so it can be closed
+    synchronized void decodeAttendees() {
+        materializeAttendees();
+    }
 
-        return objects.toArray(new String[0]);
+    // Hands the seated attendees to listener, under the monitor: right away
+    // if they are decoded, or else once something first needs them
+    synchronized void whenAttendeesDecoded(Consumer<List<Attendee>> listener) {
+        if (attendeeLoader == null) {
+            listener.accept(List.copyOf(attendees.values()));
+        } else {
+            decodeListener = listener;
+        }
     }
 
-    private static String extractJsonValue(String json, String key) {
-        String keyPattern = "\"" + key + "\":";
-        int keyIndex = json.indexOf(keyPattern);
-        if (keyIndex == -1) return "";
+    // Core Methods
+    public String convertToJson() {
+        return EventJsonWriter.toJson(this::writeJson);
+    }
 
-        int valueStart = json.indexOf(':', keyIndex) + 1;
-        valueStart = skipWhitespace(json, valueStart);
-        if (valueStart >= json.length()) return "";
+    synchronized void writeJson(EventJsonWriter out) throws IOException {
+        materializeAttendees();
+        out.writeAscii("{\"title\":");
+        out.writeString(title);
+        out.writeAscii(",\"date\":");
+        out.writeString(date);
+        out.writeAscii(",\"location\":");
+        out.writeString(location);
+        out.writeAscii(",\"type\":");
+        out.writeString(type);
+        if (capacity > 0) {
+            out.writeAscii(",\"capacity\":");
+            out.writeLong(capacity);
+        }
+        if (nextAttendeeId > 1) {
+            out.writeAscii(",\"nextAttendeeId\":");
+            out.writeLong(nextAttendeeId);
+        }
+        out.writeAscii(",\"attendees\":");
+        writeAttendees(out, attendees.values());
+        if (waitlist != null && !waitlist.isEmpty()) {
+            out.writeAscii(",\"waitlist\":");
+            writeAttendees(out, waitlist.values());
+        }
+        out.writeByte('}');
+    }
 
-        if (json.charAt(valueStart) == '"') {
-            return extractQuotedValue(json, valueStart);
+    private static void writeAttendees(EventJsonWriter out, Collection<Attendee> attendees) throws IOException {
+        out.writeByte('[');
+        boolean first = true;
+        for (Attendee attendee : attendees) {
+            if (!first) out.writeByte(',');
+            attendee.writeJson(out);
+            first = false;
         }
-        return "";
+        out.writeByte(']');
     }
 
-    private static int skipWhitespace(String str, int start) {
-        while (start < str.length() && Character.isWhitespace(str.charAt(start))) {
-            start++;
+    // The event's fields with an attendee count in place of the attendees
+    void writeSummaryJson(EventJsonWriter out) throws IOException {
+        out.writeAscii("{\"title\":");
+        out.writeString(title);
+        out.writeAscii(",\"date\":");
+        out.writeString(date);
+        out.writeAscii(",\"location\":");
+        out.writeString(location);
+        out.writeAscii(",\"type\":");
+        out.writeString(type);
+        out.writeAscii(",\"attendees\":");
+        out.writeLong(getAttendeeCount());
+        if (capacity > 0) {
+            out.writeAscii(",\"capacity\":");
+            out.writeLong(capacity);
+            out.writeAscii(",\"waitlist\":");
+            out.writeLong(getWaitlistCount());
         }
-        return start;
+        out.writeByte('}');
+    }
+
+    public String getDetails() {
+        String details = String.format("Title: %s\nDate: %s\nLocation: %s\nType: %s\nAttendees: %d", title, date, location, type, getAttendeeCount());
+        if (capacity == 0) return details;
+        return details + String.format("\nCapacity: %d (%d waitlisted)", capacity, getWaitlistCount());
     }
 
-    private static String extractQuotedValue(String json, int start) {
-        int end = findUnescapedQuote(json, start + 1);
-        return end > start ? unescapeJson(json.substring(start + 1, end)) : "";
+    public RegistrationOutcome registerAttendee(Attendee attendee) {
+        return registerAttendee(attendee, DedupPolicy.ALLOW);
     }
 
-    private static int findUnescapedQuote(String json, int start) {
-        for (int i = start; i < json.length(); i++) {
-            if (json.charAt(i) == '"' && json.charAt(i - 1) != '\\') {
-                return i;
+    public synchronized RegistrationOutcome registerAttendee(Attendee attendee, DedupPolicy policy) {
+        return outcome(attendee, register(attendee, policy));
+    }
+
+    // Returns the attendee as stored, carrying its id, or null if it was not
+    // registered. An attendee whose id is unset or taken gets the next free id.
+    // A new registration takes a seat if one is free and joins the waitlist
+    // otherwise; a replacement keeps the seat or waitlist place it replaces.
+    synchronized Attendee register(Attendee attendee, DedupPolicy policy) {
+        if (attendee == null || !attendee.isValid()) return null;
+        materializeAttendees();
+        String key = emailKey(attendee.getEmail());
+        Registrations existing = byEmail.get(key);
+        if (existing != null && policy != DedupPolicy.ALLOW) {
+            if (policy == DedupPolicy.REJECT) return null;
+            Attendee stored = attendee.withId(existing.firstId);
+            // replacing a key keeps its position
+            if (attendees.containsKey(existing.firstId)) {
+                attendees.put(existing.firstId, stored);
+                attendeeSnapshot = null;
+            } else {
+                waitlist.put(existing.firstId, stored);
             }
+            return stored;
         }
-        return -1;
+        return add(attendee, existing, key, reserveSeat());
     }
 
-    private static String extractJsonArray(String json, String key) {
-        String keyPattern = "\"" + key + "\":";
-        int keyIndex = json.indexOf(keyPattern);
-        if (keyIndex == -1) return "";
+    // What register came to, given what was submitted and what it returned
+    synchronized RegistrationOutcome outcome(Attendee submitted, Attendee stored) {
+        if (stored == null) return submitted == null || !submitted.isValid() ? RegistrationOutcome.INVALID : RegistrationOutcome.DUPLICATE;
+        return isWaitlisted(stored.getId()) ? RegistrationOutcome.WAITLISTED : RegistrationOutcome.REGISTERED;
+    }
 
-        int arrayStart = json.indexOf('[', keyIndex) + 1;
-        if (arrayStart == 0) return "";
+    private Attendee add(Attendee attendee, Registrations existing, String key, boolean seated) {
+        long id = attendee.getId();
+        if (id <= 0 || attendees.containsKey(id) || (waitlist != null && waitlist.containsKey(id))) id = nextAttendeeId;
+        nextAttendeeId = Math.max(nextAttendeeId, id + 1);
+        Attendee stored = attendee.withId(id);
+        if (seated) {
+            attendees.put(id, stored);
+            attendeeSnapshot = null;
+        } else {
+            if (waitlist == null) waitlist = new LinkedHashMap<>();
+            waitlist.put(id, stored);
+        }
+        if (existing == null) {
+            byEmail.put(key, new Registrations(id));
+        } else {
+            existing.count++;
+        }
+        return stored;
+    }
 
-        int arrayEnd = findMatchingBracket(json, arrayStart - 1);
-        return arrayEnd > arrayStart ? json.substring(arrayStart, arrayEnd) : "";
+    // Claims a seat unless the event is full, by compare-and-set on the
+    // counter; callers hold the monitor for the attendee maps, not for this
+    private boolean reserveSeat() {
+        while (true) {
+            int taken = seatsTaken.get();
+            int limit = capacity;
+            if (limit > 0 && taken >= limit) return false;
+            if (seatsTaken.compareAndSet(taken, taken + 1)) return true;
+        }
     }
 
-    private static int findMatchingBracket(String json, int start) {
-        int depth = 1;
-        for (int i = start + 1; i < json.length(); i++) {
-            char c = json.charAt(i);
-            if (c == '[') depth++;
-            if (c == ']') depth--;
-            if (depth == 0) return i;
+    // Seats free waitlisted attendees in arrival order; caller holds the monitor
+    private List<Attendee> promote() {
+        if (waitlist == null || waitlist.isEmpty()) return List.of();
+        List<Attendee> promoted = new ArrayList<>();
+        Iterator<Attendee> waiting = waitlist.values().iterator();
+        while (waiting.hasNext() && reserveSeat()) {
+            Attendee next = waiting.next();
+            waiting.remove();
+            attendees.put(next.getId(), next);
+            promoted.add(next);
         }
-        return -1;
+        if (!promoted.isEmpty()) attendeeSnapshot = null;
+        return promoted;
     }
 
-    private static String escapeJson(String input) {
-        if (input == null) return "";
-        return input.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+    // Raising the capacity seats waitlisted attendees, who are returned;
+    // lowering it never unseats anyone. 0 means unlimited.
+    synchronized List<Attendee> setCapacity(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        materializeAttendees();
+        this.capacity = capacity;
+        return promote();
     }
 
-    private static String unescapeJson(String input) {
-        return input.replace("\\\"", "\"").replace("\\n", "\n").replace("\\r", "\r").replace("\\t", "\t").replace("\\\\", "\\");
+    // Loaders seat every saved attendee first, then restore the limit and the queue behind it
+    // The saved counter may be past every remaining id, so removed ids are never handed out again
+    synchronized void restoreNextAttendeeId(long next) {
+        nextAttendeeId = Math.max(nextAttendeeId, next);
     }
 
-    // Core Methods
-    public String convertToJson() {
-        return String.format("{\"title\":\"%s\",\"date\":\"%s\",\"location\":\"%s\",\"type\":\"%s\",\"attendees\":[%s]}", escapeJson(title), escapeJson(date), escapeJson(location), escapeJson(type), attendees.stream().map(Attendee::toAttendeeJson).collect(Collectors.joining(",")));
+    synchronized long getNextAttendeeId() {
+        materializeAttendees();
+        return nextAttendeeId;
     }
 
-    public String getDetails() {
-        return String.format("Title: %s\nDate: %s\nLocation: %s\nType: %s\nAttendees: %d", title, date, location, type, attendees.size());
+    synchronized void restoreCapacity(int capacity, List<Attendee> waitlisted) {
+        this.capacity = Math.max(0, capacity);
+        for (Attendee attendee : waitlisted) {
+            if (attendee == null || !attendee.isValid()) continue;
+            String key = emailKey(attendee.getEmail());
+            add(attendee, byEmail.get(key), key, false);
+        }
+        if (waitlist != null && !waitlist.isEmpty() && getSeatsRemaining() > 0) {
+            materializeAttendees();
+            promote();
+        }
+    }
+
+    public boolean removeAttendee(long id) {
+        return !removeAttendees(List.of(id)).isEmpty();
+    }
+
+    // Returns the registrations actually removed, seated or waitlisted; unknown ids are skipped
+    public List<Attendee> removeAttendees(Collection<Long> ids) {
+        return removeAttendees(ids, new ArrayList<>());
+    }
+
+    // As above, adding the waitlisted attendees given the freed seats to promoted
+    synchronized List<Attendee> removeAttendees(Collection<Long> ids, List<Attendee> promoted) {
+        materializeAttendees();
+        List<Attendee> removed = new ArrayList<>();
+        boolean freed = false;
+        for (Long id : ids) {
+            Attendee attendee = attendees.remove(id);
+            if (attendee != null) {
+                seatsTaken.decrementAndGet();
+                attendeeSnapshot = null;
+                freed = true;
+            } else if (waitlist == null || (attendee = waitlist.remove(id)) == null) {
+                continue;
+            }
+            unindex(attendee);
+            removed.add(attendee);
+        }
+        if (freed) promoted.addAll(promote());
+        return removed;
+    }
+
+    // Whether the email holds a seat or a waitlist place
+    public synchronized boolean isRegistered(String email) {
+        if (email == null) return false;
+        materializeAttendees();
+        return byEmail.containsKey(emailKey(email));
+    }
+
+    private void unindex(Attendee removed) {
+        String key = emailKey(removed.getEmail());
+        Registrations registrations = byEmail.get(key);
+        if (--registrations.count == 0) {
+            byEmail.remove(key);
+        } else if (registrations.firstId == removed.getId()) {
+            for (Attendee attendee : registrations()) {
+                if (emailKey(attendee.getEmail()).equals(key)) {
+                    registrations.firstId = attendee.getId();
+                    break;
+                }
+            }
+        }
+    }
+
+    // Seated attendees, then the waitlist
+    private Iterable<Attendee> registrations() {
+        if (waitlist == null || waitlist.isEmpty()) return attendees.values();
+        List<Attendee> all = new ArrayList<>(attendees.size() + waitlist.size());
+        all.addAll(attendees.values());
+        all.addAll(waitlist.values());
+        return all;
     }
 
-    public boolean registerAttendee(Attendee attendee) {
-        if (attendee == null || !attendee.isValid()) return false;
-        return attendees.add(attendee);
+    // Ids of every registration of the email, seated ones first
+    synchronized List<Long> attendeeIdsFor(String email) {
+        materializeAttendees();
+        Registrations registrations = email == null ? null : byEmail.get(emailKey(email));
+        if (registrations == null) return new ArrayList<>();
+        if (registrations.count == 1) return new ArrayList<>(List.of(registrations.firstId));
+        String key = emailKey(email);
+        List<Long> ids = new ArrayList<>(registrations.count);
+        for (Attendee attendee : registrations()) {
+            if (emailKey(attendee.getEmail()).equals(key)) ids.add(attendee.getId());
+        }
+        return ids;
     }
 
-    public boolean removeAttendee(int index) {
-        if (index < 0 || index >= attendees.size()) return false;
-        attendees.remove(index);
-        return true;
+    // Emails compare trimmed and case-insensitively
+    static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Pre-sizes the attendee map when the loader knows the count up front
+    synchronized void ensureAttendeeCapacity(int count) {
+        if (attendees.isEmpty()) attendees = LinkedHashMap.newLinkedHashMap(count);
+    }
+
+    // Detached copy for background writers; attendees are shared, not decoded again
+    synchronized Event snapshot() {
+        Event copy = new Event(title, date, location, type, capacity);
+        copy.seatsTaken.set(seatsTaken.get());
+        if (waitlist != null) copy.waitlist = new LinkedHashMap<>(waitlist);
+        byEmail.forEach((key, registrations) -> {
+            Registrations copied = new Registrations(registrations.firstId);
+            copied.count = registrations.count;
+            copy.byEmail.put(key, copied);
+        });
+        copy.nextAttendeeId = nextAttendeeId;
+        if (attendeeLoader != null) {
+            copy.attendeeLoader = attendeeLoader;
+        } else {
+            copy.attendees.putAll(attendees);
+        }
+        return copy;
     }
 
     // Getters
@@ -140,6 +415,10 @@ public class Event {
         return date;
     }
 
+    public LocalDate getLocalDate() {
+        return localDate;
+    }
+
     public String getLocation() {
         return location;
     }
@@ -148,62 +427,216 @@ public class Event {
         return type;
     }
 
-    public List<Attendee> getAttendees() {
-        return Collections.unmodifiableList(attendees);
+    // Seated or waitlisted
+    public synchronized Attendee getAttendee(long id) {
+        materializeAttendees();
+        Attendee attendee = attendees.get(id);
+        return attendee != null || waitlist == null ? attendee : waitlist.get(id);
+    }
+
+    // Immutable copy, reused until the attendees change
+    public synchronized List<Attendee> getAttendees() {
+        materializeAttendees();
+        if (attendeeSnapshot == null) attendeeSnapshot = List.copyOf(attendees.values());
+        return attendeeSnapshot;
+    }
+
+    // Seated attendees; until they are materialized, the number of entries in the file
+    public int getAttendeeCount() {
+        return seatsTaken.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Integer.MAX_VALUE when the capacity is unlimited
+    public int getSeatsRemaining() {
+        int limit = capacity;
+        return limit == 0 ? Integer.MAX_VALUE : Math.max(0, limit - seatsTaken.get());
+    }
+
+    public boolean isFull() {
+        return getSeatsRemaining() == 0;
+    }
+
+    // In the order seats will be offered
+    public synchronized List<Attendee> getWaitlist() {
+        return waitlist == null ? List.of() : List.copyOf(waitlist.values());
+    }
+
+    public synchronized int getWaitlistCount() {
+        return waitlist == null ? 0 : waitlist.size();
+    }
+
+    synchronized boolean isWaitlisted(long id) {
+        return waitlist != null && waitlist.containsKey(id);
     }
 
     // JSON Serialization/Deserialization
     public static class EventJsonParser {
+        // Enough chunks that a slow one does not leave the other threads idle
+        private static final int CHUNKS_PER_THREAD = 4;
+
         private EventJsonParser() {
         } // Prevent instantiation
 
         public static List<Event> loadEventsFromFile(String filePath) throws IOException {
-            try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-                String jsonContent = reader.lines().collect(Collectors.joining()).trim();
-                if (jsonContent.startsWith("[") && jsonContent.endsWith("]")) {
-                    jsonContent = jsonContent.substring(1, jsonContent.length() - 1).trim();
+            List<Event> events = new ArrayList<>();
+            try (Reader reader = new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8)) {
+                parseEvents(reader, events::add);
+            }
+            return events;
+        }
+
+        // Finds event boundaries with a structural pre-scan of the mapped file, then
+        // parses contiguous chunks of events on a fork-join pool. File order is kept.
+        public static List<Event> loadEventsParallel(String filePath, int threads) throws IOException {
+            MappedEventLoader file = MappedEventLoader.open(filePath);
+            long[] offsets = file.indexEventOffsets();
+            Event[] events = new Event[offsets.length];
+            int chunks = Math.min(offsets.length, threads * CHUNKS_PER_THREAD);
+            StringPool strings = new StringPool();
+
+            List<Callable<Void>> tasks = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int first = (int) ((long) offsets.length * chunk / chunks);
+                int last = (int) ((long) offsets.length * (chunk + 1) / chunks);
+                long end = last < offsets.length ? offsets[last] : file.size();
+                tasks.add(() -> {
+                    JsonTokenizer json = new JsonTokenizer(file.reader(offsets[first], end), true);
+                    for (int i = first; i < last; i++) {
+                        events[i] = readEvent(json, strings);
+                    }
+                    return null;
+                });
+            }
+
+            // Nothing decodes from the mapping once every task is done, so it is
+            // released then rather than held until the buffers are collected
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            boolean finished = false;
+            try {
+                List<Future<Void>> results = pool.invokeAll(tasks);
+                finished = true;
+                for (Future<Void> task : results) {
+                    task.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while loading " + filePath);
+            } catch (ExecutionException | RuntimeException e) {
+                // The pool wraps a task's IOException, sometimes more than once
+                for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                    if (cause instanceof IOException io) throw io;
                 }
-                return parseEventArray(jsonContent);
+                if (e instanceof RuntimeException runtime) throw runtime;
+                if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+                throw new IOException(e.getCause());
+            } finally {
+                pool.shutdown();
+                if (finished) file.close();
             }
+            return new ArrayList<>(Arrays.asList(events));
         }
 
-        private static List<Event> parseEventArray(String jsonArray) {
-            return Arrays.stream(splitJsonObjects(jsonArray)).filter(json -> !json.trim().isEmpty()).map(EventJsonParser::parseEvent).filter(Objects::nonNull).collect(Collectors.toList());
+        public static void parseEvents(Reader reader, Consumer<Event> sink) throws IOException {
+            JsonTokenizer json = new JsonTokenizer(reader);
+            if (json.peek() == JsonTokenizer.Token.END_DOCUMENT) return;
+
+            StringPool pool = new StringPool();
+            json.beginArray();
+            while (json.hasNext()) {
+                Event event = readEvent(json, pool);
+                if (event != null) sink.accept(event);
+            }
+            json.endArray();
+            json.endDocument();
         }
 
-        private static Event parseEvent(String json) {
-            try {
-                String title = extractJsonValue(json, "title");
-                String date = extractJsonValue(json, "date");
-                String location = extractJsonValue(json, "location");
-                String type = extractJsonValue(json, "type");
-
-                Event event = new Event(title, date, location, type);
-                parseAttendees(json, event);
-                return event;
-            } catch (Exception e) {
-                System.err.println("Error parsing event: " + e.getMessage());
+        // Dates, locations and types repeat across events, so they go through the pool
+        static Event readEvent(JsonTokenizer json, StringPool pool) throws IOException {
+            if (json.peek() != JsonTokenizer.Token.BEGIN_OBJECT) {
+                json.skipValue();
                 return null;
             }
+
+            String title = "", date = "", location = "", type = "";
+            int capacity = 0;
+            long nextAttendeeId = 0;
+            List<Attendee> attendees = Collections.emptyList();
+            List<Attendee> waitlist = Collections.emptyList();
+
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "title" -> title = readString(json);
+                    case "date" -> date = pool.intern(readString(json));
+                    case "location" -> location = pool.intern(readString(json));
+                    case "type" -> type = pool.intern(readString(json));
+                    case "capacity" -> capacity = (int) readLong(json);
+                    case "nextAttendeeId" -> nextAttendeeId = readLong(json);
+                    case "attendees" -> attendees = readAttendees(json);
+                    case "waitlist" -> waitlist = readAttendees(json);
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+
+            Event event = new Event(title, date, location, type);
+            attendees.forEach(event::registerAttendee);
+            event.restoreNextAttendeeId(nextAttendeeId);
+            if (capacity > 0 || !waitlist.isEmpty()) event.restoreCapacity(capacity, waitlist);
+            return event;
         }
 
-        private static void parseAttendees(String json, Event event) {
-            if (json.contains("\"attendees\":")) {
-                String attendeesJson = extractJsonArray(json, "attendees");
-                Arrays.stream(splitJsonObjects(attendeesJson)).map(EventJsonParser::parseAttendee).filter(Objects::nonNull).forEach(event::registerAttendee);
+        static Attendee readAttendee(JsonTokenizer json) throws IOException {
+            if (json.peek() != JsonTokenizer.Token.BEGIN_OBJECT) {
+                json.skipValue();
+                return null;
+            }
+
+            String name = "", email = "";
+            long id = 0;
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "id" -> id = readLong(json);
+                    case "name" -> name = readString(json);
+                    case "email" -> email = readString(json);
+                    default -> json.skipValue();
+                }
             }
+            json.endObject();
+            return (name.isEmpty() && email.isEmpty()) ? null : new Attendee(id, name, email);
         }
 
-        private static Attendee parseAttendee(String json) {
-            String fixedJson = json.trim();
-            if (fixedJson.isEmpty()) return null;
+        static List<Attendee> readAttendees(JsonTokenizer json) throws IOException {
+            if (json.peek() != JsonTokenizer.Token.BEGIN_ARRAY) {
+                json.skipValue();
+                return Collections.emptyList();
+            }
+
+            List<Attendee> attendees = new ArrayList<>();
+            json.beginArray();
+            while (json.hasNext()) {
+                Attendee attendee = readAttendee(json);
+                if (attendee != null) attendees.add(attendee);
+            }
+            json.endArray();
+            return attendees;
+        }
 
-            if (!fixedJson.startsWith("{")) fixedJson = "{" + fixedJson;
-            if (!fixedJson.endsWith("}")) fixedJson = fixedJson + "}";
+        private static long readLong(JsonTokenizer json) throws IOException {
+            if (json.peek() == JsonTokenizer.Token.NUMBER) return json.nextLong();
+            json.skipValue();
+            return 0;
+        }
 
-            String name = extractJsonValue(fixedJson, "name");
-            String email = extractJsonValue(fixedJson, "email");
-            return (name.isEmpty() && email.isEmpty()) ? null : new Attendee(name, email);
+        private static String readString(JsonTokenizer json) throws IOException {
+            if (json.peek() == JsonTokenizer.Token.STRING) return json.nextString();
+            json.skipValue();
+            return "";
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,479 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JSON over HTTP for EventManagerApp, served by the JDK's built-in server with
+ * one virtual thread per request, so thousands of concurrent kiosks cost a
+ * few kilobytes each rather than a platform thread each.
+ *
+ *   GET    /events?type=&from=&to=&offset=&limit=   event summaries
+ *   POST   /events                                  {"title","date","location","type"[,"capacity"]}
+ *   GET    /events/{title}                          one event summary
+ *   DELETE /events/{title}
+ *   GET    /events/{title}/attendees?offset=&limit=
+ *   POST   /events/{title}/attendees                {"name","email"[,"policy"]}; 202 if waitlisted
+ *   GET    /events/{title}/waitlist?offset=&limit=
+ *   DELETE /events/{title}/attendees/{id}
+ *   GET    /search?q=&offset=&limit=                full-text search over events
+ *   GET    /attendees?email=&offset=&limit=         events an email is registered for
+ *   GET    /attendees?q=&offset=&limit=             full-text search over attendees
+ *
+ * Titles in paths are URL-encoded. Lists come back as
+ * {"total":N,"offset":O,"items":[...]}, a page of at most limit items
+ * (default 100), and are written to the connection as they are serialized.
+ * GET responses carry an ETag taken from a change counter before the data is
+ * read, so a matching If-None-Match gets a 304 without touching the data.
+ * Changes are journaled and flushed to disk before the response is sent;
+ * registrations go through a RegistrationQueue so that concurrent ones share
+ * a flush.
+ */
+public final class EventApiServer {
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int RESPONSE_BUFFER = 8 * 1024;
+
+    private interface Route {
+        void serve(Request request) throws IOException;
+    }
+
+    private static final class ApiException extends RuntimeException {
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // The path below the context, split and decoded, and the decoded query parameters
+    private record Request(HttpExchange exchange, List<String> path, Map<String, String> query) {
+        String method() {
+            return exchange.getRequestMethod();
+        }
+
+        String param(String name) {
+            return query.get(name);
+        }
+
+        int intParam(String name, int defaultValue) {
+            String value = query.get(name);
+            if (value == null) return defaultValue;
+            try {
+                int parsed = Integer.parseInt(value);
+                if (parsed >= 0) return parsed;
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw new ApiException(400, name + " must be a non-negative integer");
+        }
+    }
+
+    private interface ItemWriter<T> {
+        void write(T item, EventJsonWriter out) throws IOException;
+    }
+
+    private final EventManagerApp app;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final RegistrationQueue registrations;
+
+    // ETag stamps. Every change takes the next value of one counter, and an
+    // event keeps the stamp of its last change, so a deleted and recreated
+    // event never repeats a stamp. The epoch keeps tags from an earlier run
+    // from matching.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong stamps = new AtomicLong();
+    private final Map<Event, Long> eventStamps = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final EventManagerApp.ChangeListener stampListener = new EventManagerApp.ChangeListener() {
+        @Override
+        public void eventsAdded(int firstIndex, List<Event> added) {
+            long stamp = stamps.incrementAndGet();
+            added.forEach(event -> eventStamps.put(event, stamp));
+        }
+
+        @Override
+        public void eventRemoved(int index, Event event) {
+            stamps.incrementAndGet();
+            eventStamps.remove(event);
+        }
+
+        @Override
+        public void eventUpdated(Event event) {
+            eventStamps.put(event, stamps.incrementAndGet());
+        }
+
+        @Override
+        public void eventsCleared() {
+            stamps.incrementAndGet();
+            eventStamps.clear();
+        }
+    };
+
+    public EventApiServer(EventManagerApp app, InetSocketAddress address) throws IOException {
+        this.app = app;
+        this.registrations = new RegistrationQueue(app);
+        this.server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        server.createContext("/events", exchange -> handle(exchange, "/events", this::events));
+        server.createContext("/search", exchange -> handle(exchange, "/search", this::search));
+        server.createContext("/attendees", exchange -> handle(exchange, "/attendees", this::attendees));
+    }
+
+    public void start() {
+        app.addChangeListener(stampListener);
+        server.start();
+    }
+
+    // Waits up to delaySeconds for requests in flight
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close();
+        registrations.close();
+        app.removeChangeListener(stampListener);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Routes
+
+    private void events(Request request) throws IOException {
+        List<String> path = request.path();
+        if (path.isEmpty()) {
+            switch (request.method()) {
+                case "GET" -> listEvents(request);
+                case "POST" -> createEvent(request);
+                default -> throw methodNotAllowed(request, "GET, POST");
+            }
+            return;
+        }
+
+        String title = path.get(0);
+        Event event = app.findEventByTitle(title).orElseThrow(() -> new ApiException(404, "No event titled '" + title + "'"));
+        if (path.size() == 1) {
+            switch (request.method()) {
+                case "GET" -> {
+                    String etag = eventTag(event);
+                    if (!notModified(request, etag)) sendJson(request, 200, etag, event::writeSummaryJson);
+                }
+                case "DELETE" -> {
+                    if (!app.deleteEvent(title)) throw new ApiException(404, "No event titled '" + title + "'");
+                    save();
+                    sendEmpty(request, 204);
+                }
+                default -> throw methodNotAllowed(request, "GET, DELETE");
+            }
+        } else if (path.get(1).equals("attendees") && path.size() == 2) {
+            switch (request.method()) {
+                case "GET" -> {
+                    String etag = eventTag(event);
+                    if (!notModified(request, etag)) sendList(request, etag, event.getAttendees(), Attendee::writeJson);
+                }
+                case "POST" -> registerAttendee(request, title);
+                default -> throw methodNotAllowed(request, "GET, POST");
+            }
+        } else if (path.get(1).equals("waitlist") && path.size() == 2) {
+            if (!request.method().equals("GET")) throw methodNotAllowed(request, "GET");
+            String etag = eventTag(event);
+            if (!notModified(request, etag)) sendList(request, etag, event.getWaitlist(), Attendee::writeJson);
+        } else if (path.get(1).equals("attendees") && path.size() == 3) {
+            if (!request.method().equals("DELETE")) throw methodNotAllowed(request, "DELETE");
+            long id;
+            try {
+                id = Long.parseLong(path.get(2));
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "Attendee id must be a number");
+            }
+            if (!app.removeAttendee(title, id)) throw new ApiException(404, "No attendee " + id + " in '" + title + "'");
+            save();
+            sendEmpty(request, 204);
+        } else {
+            throw new ApiException(404, "Not found");
+        }
+    }
+
+    private void listEvents(Request request) throws IOException {
+        String type = request.param("type");
+        String from = request.param("from");
+        String to = request.param("to");
+        if ((from == null) != (to == null)) throw new ApiException(400, "from and to go together");
+        if (from != null && (!app.isValidDate(from) || !app.isValidDate(to))) throw new ApiException(400, "Dates must be YYYY-MM-DD");
+
+        String etag = datasetTag();
+        if (notModified(request, etag)) return;
+        List<Event> events = from != null ? app.findEventsBetween(from, to)
+                : type != null ? app.findEventsByType(type)
+                : app.getAllEvents();
+        if (from != null && type != null) {
+            events = events.stream().filter(event -> type.equalsIgnoreCase(event.getType())).toList();
+        }
+        sendList(request, etag, events, Event::writeSummaryJson);
+    }
+
+    private void createEvent(Request request) throws IOException {
+        Map<String, String> body = readBody(request);
+        String title = body.getOrDefault("title", "");
+        String date = body.getOrDefault("date", "");
+        if (!app.isValidEvent(title)) throw new ApiException(400, "Title cannot be empty");
+        if (!app.isValidDate(date)) throw new ApiException(400, "Date must be in YYYY-MM-DD format");
+        int capacity;
+        try {
+            capacity = Integer.parseInt(body.getOrDefault("capacity", "0"));
+        } catch (NumberFormatException e) {
+            capacity = -1;
+        }
+        if (capacity < 0) throw new ApiException(400, "capacity must be a non-negative integer");
+        // Titles address events in this API, so they must stay unique
+        if (!app.createEventIfAbsent(title, date, body.getOrDefault("location", ""), body.getOrDefault("type", ""), capacity)) {
+            throw new ApiException(409, "An event titled '" + title + "' already exists");
+        }
+        save();
+        Event event = app.findEventByTitle(title).orElseThrow(() -> new ApiException(409, "Event was deleted concurrently"));
+        request.exchange().getResponseHeaders().set("Location", "/events/" + encode(title));
+        sendJson(request, 201, null, event::writeSummaryJson);
+    }
+
+    private void registerAttendee(Request request, String title) throws IOException {
+        Map<String, String> body = readBody(request);
+        String name = body.getOrDefault("name", "").trim();
+        String email = body.getOrDefault("email", "").trim();
+        if (name.isEmpty()) throw new ApiException(400, "Name cannot be empty");
+        if (!app.isValidEmail(email)) throw new ApiException(400, "Invalid email '" + email + "'");
+        Event.DedupPolicy policy;
+        try {
+            policy = Event.DedupPolicy.valueOf(body.getOrDefault("policy", "REJECT").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "policy must be one of " + Arrays.toString(Event.DedupPolicy.values()));
+        }
+
+        EventManagerApp.RegistrationResult result;
+        try {
+            result = registrations.submit(title, new Attendee(name, email), policy).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) throw notSaved();
+            throw e;
+        }
+        switch (result.outcome()) {
+            case REGISTERED -> sendJson(request, 201, null, result.attendee()::writeJson);
+            case WAITLISTED -> sendJson(request, 202, null, result.attendee()::writeJson);
+            case DUPLICATE -> throw new ApiException(409, email + " is already registered for '" + title + "'");
+            case INVALID -> throw new ApiException(400, "Invalid attendee");
+            case NO_EVENT -> throw new ApiException(404, "No event titled '" + title + "'");
+        }
+    }
+
+    // Changes are acknowledged only once they are on disk
+    private void save() {
+        try {
+            app.saveEventsDurably();
+        } catch (IOException e) {
+            System.err.println("Error saving events: " + e.getMessage());
+            throw notSaved();
+        }
+    }
+
+    private static ApiException notSaved() {
+        return new ApiException(503, "The change could not be saved to disk");
+    }
+
+    private void search(Request request) throws IOException {
+        if (!request.path().isEmpty()) throw new ApiException(404, "Not found");
+        if (!request.method().equals("GET")) throw methodNotAllowed(request, "GET");
+        String query = request.param("q");
+        if (query == null || EventTextIndex.Query.parse(query).isEmpty()) throw new ApiException(400, "q is required");
+        String etag = datasetTag();
+        if (!notModified(request, etag)) sendList(request, etag, app.searchEvents(query), Event::writeSummaryJson);
+    }
+
+    private void attendees(Request request) throws IOException {
+        if (!request.path().isEmpty()) throw new ApiException(404, "Not found");
+        if (!request.method().equals("GET")) throw methodNotAllowed(request, "GET");
+        String email = request.param("email");
+        String query = request.param("q");
+        if ((email == null) == (query == null)) throw new ApiException(400, "Exactly one of email and q is required");
+
+        String etag = datasetTag();
+        if (notModified(request, etag)) return;
+        if (email != null) {
+            sendList(request, etag, app.findEventsForAttendee(email), Event::writeSummaryJson);
+        } else {
+            sendList(request, etag, app.searchAttendees(query), (match, out) -> {
+                out.writeAscii("{\"event\":");
+                out.writeString(match.event().getTitle());
+                out.writeAscii(",\"attendee\":");
+                match.attendee().writeJson(out);
+                out.writeByte('}');
+            });
+        }
+    }
+
+    // Plumbing
+
+    private void handle(HttpExchange exchange, String context, Route route) {
+        try {
+            route.serve(new Request(exchange, pathBelow(exchange, context), parseQuery(exchange.getRequestURI().getRawQuery())));
+        } catch (ApiException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IOException e) {
+            // The client went away; nothing left to tell it
+        } catch (RuntimeException e) {
+            System.err.println("Error serving " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static List<String> pathBelow(HttpExchange exchange, String context) {
+        String raw = exchange.getRequestURI().getRawPath();
+        if (!raw.equals(context) && !raw.startsWith(context + "/")) throw new ApiException(404, "Not found");
+        List<String> path = new ArrayList<>();
+        for (String segment : raw.substring(context.length()).split("/")) {
+            // '+' is literal in a path, unlike in a query string
+            if (!segment.isEmpty()) path.add(URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8));
+        }
+        return path;
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> query = new HashMap<>();
+        if (raw == null) return query;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int equals = pair.indexOf('=');
+            String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            query.putIfAbsent(key, value);
+        }
+        return query;
+    }
+
+    // A flat JSON object of string and integer fields; other values are ignored
+    private static Map<String, String> readBody(Request request) throws IOException {
+        byte[] bytes = request.exchange().getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (bytes.length > MAX_BODY_BYTES) throw new ApiException(413, "Request body too large");
+        Map<String, String> fields = new HashMap<>();
+        try {
+            JsonTokenizer json = new JsonTokenizer(new StringReader(new String(bytes, StandardCharsets.UTF_8)));
+            json.beginObject();
+            while (json.hasNext()) {
+                String key = json.nextName();
+                if (json.peek() == JsonTokenizer.Token.STRING) {
+                    fields.put(key, json.nextString());
+                } else if (json.peek() == JsonTokenizer.Token.NUMBER) {
+                    fields.put(key, Long.toString(json.nextLong()));
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            json.endDocument();
+        } catch (IOException | RuntimeException e) {
+            throw new ApiException(400, "Body must be a JSON object: " + e.getMessage());
+        }
+        return fields;
+    }
+
+    private String datasetTag() {
+        return "\"" + epoch + "-" + stamps.get() + "\"";
+    }
+
+    private String eventTag(Event event) {
+        return "\"" + epoch + "-e" + eventStamps.getOrDefault(event, 0L) + "\"";
+    }
+
+    private static boolean notModified(Request request, String etag) throws IOException {
+        String ifNoneMatch = request.exchange().getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag) || tag.equals("*")) {
+                request.exchange().getResponseHeaders().set("ETag", etag);
+                request.exchange().sendResponseHeaders(304, -1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Streams one page with chunked encoding, serializing items straight into the response
+    private static <T> void sendList(Request request, String etag, List<T> items, ItemWriter<T> writer) throws IOException {
+        int offset = request.intParam("offset", 0);
+        int limit = request.intParam("limit", DEFAULT_LIMIT);
+        int from = Math.min(offset, items.size());
+        int to = (int) Math.min((long) from + limit, items.size());
+
+        HttpExchange exchange = request.exchange();
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (etag != null) exchange.getResponseHeaders().set("ETag", etag);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody();
+             EventJsonWriter out = new EventJsonWriter(Channels.newChannel(body), RESPONSE_BUFFER)) {
+            out.writeAscii("{\"total\":");
+            out.writeLong(items.size());
+            out.writeAscii(",\"offset\":");
+            out.writeLong(offset);
+            out.writeAscii(",\"items\":[");
+            for (int i = from; i < to; i++) {
+                if (i > from) out.writeByte(',');
+                writer.write(items.get(i), out);
+            }
+            out.writeAscii("]}");
+        }
+    }
+
+    private static void sendJson(Request request, int status, String etag, EventJsonWriter.Body body) throws IOException {
+        EventJsonWriter out = new EventJsonWriter(512);
+        body.writeTo(out);
+        HttpExchange exchange = request.exchange();
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (etag != null) exchange.getResponseHeaders().set("ETag", etag);
+        exchange.sendResponseHeaders(status, out.size());
+        try (OutputStream stream = exchange.getResponseBody()) {
+            out.writeTo(Channels.newChannel(stream));
+        }
+    }
+
+    private static void sendEmpty(Request request, int status) throws IOException {
+        request.exchange().sendResponseHeaders(status, -1);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        if (exchange.getResponseCode() != -1) return; // already streaming a response
+        try {
+            EventJsonWriter out = new EventJsonWriter(128);
+            out.writeAscii("{\"error\":");
+            out.writeString(message);
+            out.writeByte('}');
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, out.size());
+            try (OutputStream stream = exchange.getResponseBody()) {
+                out.writeTo(Channels.newChannel(stream));
+            }
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    private static ApiException methodNotAllowed(Request request, String allowed) {
+        request.exchange().getResponseHeaders().set("Allow", allowed);
+        return new ApiException(405, request.method() + " is not allowed here");
+    }
+
+    private static String encode(String segment) {
+        return java.net.URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Compact binary copy of the events snapshot, written next to events.json
+ * after each compaction and preferred on load while it is at least as new as
+ * the JSON file.
+ *
+ * Layout (big-endian):
+ *   int magic, int version, int eventCount, int attendeeCount
+ *   int stringCount, stringCount x string        -- shared string table
+ *   per event: string title, int date, int location, int type, int capacity,
+ *              long nextAttendeeId, int attendees, attendees x attendee,
+ *              int waitlisted, waitlisted x attendee
+ *     attendee: long id, string name, string emailLocalPart, int emailDomain
+ * Strings are an int byte length followed by UTF-8 bytes. Dates, locations,
+ * types and email domains are indexes into the string table, so repeated
+ * values are stored and allocated once; a domain of -1 means no '@'.
+ */
+final class EventBinarySnapshot {
+    private static final int MAGIC = 0x45564E54; // "EVNT"
+    private static final int VERSION = 4;
+
+    private final Path path;
+    private final Path jsonPath;
+
+    EventBinarySnapshot(String jsonPath) {
+        this.jsonPath = Path.of(jsonPath);
+        this.path = Path.of(jsonPath + ".bin");
+    }
+
+    // A snapshot from an older version is never fresh; the next compaction replaces it
+    boolean isFresh() {
+        try {
+            if (!Files.exists(path) || (Files.exists(jsonPath)
+                    && Files.getLastModifiedTime(path).compareTo(Files.getLastModifiedTime(jsonPath)) < 0)) {
+                return false;
+            }
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+                return in.readInt() == MAGIC && in.readInt() == VERSION;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    List<Event> read() throws IOException {
+        ArrayList<Event> events = new ArrayList<>();
+        read(events::add, percent -> {}, events::ensureCapacity);
+        return events;
+    }
+
+    void read(Consumer<Event> sink, IntConsumer progressPercent) throws IOException {
+        read(sink, progressPercent, count -> {});
+    }
+
+    private void read(Consumer<Event> sink, IntConsumer progressPercent, IntConsumer eventCount) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not an event snapshot: " + path);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+
+            int events = in.readInt();
+            in.readInt(); // total attendees, informational
+            eventCount.accept(events);
+
+            String[] table = new String[in.readInt()];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = readString(in);
+            }
+
+            int lastPercent = -1;
+            for (int i = 0; i < events; i++) {
+                Event event = new Event(readString(in), table[in.readInt()], table[in.readInt()], table[in.readInt()]);
+                int capacity = in.readInt();
+                long nextAttendeeId = in.readLong();
+                int attendees = in.readInt();
+                event.ensureAttendeeCapacity(attendees);
+                for (int j = 0; j < attendees; j++) {
+                    event.registerAttendee(readAttendee(in, table));
+                }
+                event.restoreNextAttendeeId(nextAttendeeId);
+                int waitlisted = in.readInt();
+                if (capacity > 0 || waitlisted > 0) {
+                    List<Attendee> waitlist = new ArrayList<>(waitlisted);
+                    for (int j = 0; j < waitlisted; j++) {
+                        waitlist.add(readAttendee(in, table));
+                    }
+                    event.restoreCapacity(capacity, waitlist);
+                }
+                sink.accept(event);
+
+                int percent = (int) ((i + 1) * 100L / events);
+                if (percent != lastPercent) {
+                    lastPercent = percent;
+                    progressPercent.accept(percent);
+                }
+            }
+        }
+    }
+
+    void write(List<Event> events) throws IOException {
+        Map<String, Integer> table = new LinkedHashMap<>();
+        int attendeeCount = 0;
+        for (Event event : events) {
+            intern(table, event.getDate());
+            intern(table, event.getLocation());
+            intern(table, event.getType());
+            for (Attendee attendee : event.getAttendees()) {
+                internDomain(table, attendee);
+                attendeeCount++;
+            }
+            for (Attendee attendee : event.getWaitlist()) {
+                internDomain(table, attendee);
+            }
+        }
+
+        Path tempPath = Path.of(path + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tempPath.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(events.size());
+            out.writeInt(attendeeCount);
+
+            out.writeInt(table.size());
+            for (String value : table.keySet()) {
+                writeString(out, value);
+            }
+
+            for (Event event : events) {
+                writeString(out, event.getTitle());
+                out.writeInt(table.get(nullToEmpty(event.getDate())));
+                out.writeInt(table.get(nullToEmpty(event.getLocation())));
+                out.writeInt(table.get(nullToEmpty(event.getType())));
+                out.writeInt(event.getCapacity());
+                out.writeLong(event.getNextAttendeeId());
+                writeAttendees(out, table, event.getAttendees());
+                writeAttendees(out, table, event.getWaitlist());
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeAttendees(DataOutputStream out, Map<String, Integer> table, List<Attendee> attendees) throws IOException {
+        out.writeInt(attendees.size());
+        for (Attendee attendee : attendees) {
+            String email = attendee.getEmail();
+            int at = email.lastIndexOf('@');
+            out.writeLong(attendee.getId());
+            writeString(out, attendee.getName());
+            writeString(out, at < 0 ? email : email.substring(0, at));
+            out.writeInt(at < 0 ? -1 : table.get(email.substring(at + 1)));
+        }
+    }
+
+    private static Attendee readAttendee(DataInputStream in, String[] table) throws IOException {
+        long id = in.readLong();
+        String name = readString(in);
+        String local = readString(in);
+        int domain = in.readInt();
+        return new Attendee(id, name, domain < 0 ? local : local + '@' + table[domain]);
+    }
+
+    private static void internDomain(Map<String, Integer> table, Attendee attendee) {
+        String email = attendee.getEmail();
+        int at = email.lastIndexOf('@');
+        if (at >= 0) intern(table, email.substring(at + 1));
+    }
+
+    private static void intern(Map<String, Integer> table, String value) {
+        table.putIfAbsent(nullToEmpty(value), table.size());
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = nullToEmpty(value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) throw new IOException("Corrupt snapshot: negative string length");
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * In-memory lookup structures over the event list, kept in step with every
+ * add and remove so queries never scan the full list. Buckets preserve
+ * insertion order, which matches the order of the backing event list.
+ */
+final class EventIndex {
+    private final Map<String, List<Event>> byTitle = new HashMap<>();
+    private final Map<String, Set<Event>> byType = new HashMap<>();
+    private final NavigableMap<LocalDate, Set<Event>> byDate = new TreeMap<>(); // events with a valid date
+
+    void add(Event event) {
+        byTitle.computeIfAbsent(event.getTitle(), k -> new ArrayList<>(1)).add(event);
+        byType.computeIfAbsent(typeKey(event.getType()), k -> new LinkedHashSet<>()).add(event);
+        if (event.getLocalDate() != null) {
+            byDate.computeIfAbsent(event.getLocalDate(), k -> new LinkedHashSet<>()).add(event);
+        }
+    }
+
+    // Removes and returns every event with the given title
+    List<Event> removeByTitle(String title) {
+        List<Event> removed = byTitle.remove(title);
+        if (removed == null) return Collections.emptyList();
+        for (Event event : removed) {
+            removeFrom(byType, typeKey(event.getType()), event);
+            if (event.getLocalDate() != null) removeFrom(byDate, event.getLocalDate(), event);
+        }
+        return removed;
+    }
+
+    void clear() {
+        byTitle.clear();
+        byType.clear();
+        byDate.clear();
+    }
+
+    Optional<Event> findFirstByTitle(String title) {
+        List<Event> matches = byTitle.get(title);
+        return matches == null ? Optional.empty() : Optional.of(matches.get(0));
+    }
+
+    List<Event> findByType(String type) {
+        Set<Event> matches = byType.get(typeKey(type));
+        return matches == null ? new ArrayList<>() : new ArrayList<>(matches);
+    }
+
+    // Both bounds are inclusive
+    List<Event> findBetween(LocalDate from, LocalDate to) {
+        List<Event> matches = new ArrayList<>();
+        if (from.isAfter(to)) return matches;
+        byDate.subMap(from, true, to, true).values().forEach(matches::addAll);
+        return matches;
+    }
+
+    // The first events on or after the given day, in date order
+    List<Event> findFrom(LocalDate from, int limit) {
+        List<Event> matches = new ArrayList<>(Math.min(limit, 64));
+        for (Set<Event> bucket : byDate.tailMap(from, true).values()) {
+            for (Event event : bucket) {
+                if (matches.size() == limit) return matches;
+                matches.add(event);
+            }
+        }
+        return matches;
+    }
+
+    private static String typeKey(String type) {
+        return type == null ? "" : type.toLowerCase(Locale.ROOT);
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Event>> index, K key, Event event) {
+        Set<Event> bucket = index.get(key);
+        if (bucket != null && bucket.remove(event) && bucket.isEmpty()) {
+            index.remove(key);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of mutations made since the last snapshot. Each entry is
+ * one JSON object per line. Entries are buffered by {@link #record} and made
+ * durable by {@link #flush}; {@link #replay} re-applies them after loading
+ * the snapshot. A flush swaps the buffer out under the monitor and writes
+ * and forces it outside, so recording never waits behind an fsync. A batch
+ * whose write or force fails is kept, and written again at the offset where
+ * the journal was last known to be durable.
+ *
+ * Compaction protocol: {@link #beginCompaction} first creates the snapshot's
+ * temp file and then renames the live journal aside as a numbered segment.
+ * While the temp file exists, set-aside segments have not reached the
+ * snapshot yet and are replayed; once the new snapshot has been moved into
+ * place the temp file is gone and any remaining segments are discarded.
+ */
+final class EventJournal {
+    record Entry(String op, Map<String, String> fields) {
+        String get(String key) {
+            return fields.getOrDefault(key, "");
+        }
+
+        int getInt(String key) {
+            return Integer.parseInt(get(key));
+        }
+
+        long getLong(String key) {
+            return Long.parseLong(get(key));
+        }
+    }
+
+    // Opens the journal file for reading and writing
+    interface ChannelOpener {
+        ChannelOpener DEFAULT = path -> FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        FileChannel open(Path path) throws IOException;
+    }
+
+    private static final long MIN_COMPACTION_SIZE = 1 << 20;
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final String segmentPrefix;
+    private final Path tempSnapshotPath;
+    // Guarded by this; record() appends to pending
+    private EventJsonWriter pending = new EventJsonWriter(4096);
+    private FileChannel channel;
+    // Serializes flushes; writing holds the batch being written, or one whose write failed.
+    // Taken before this, never after.
+    private final Object flushLock = new Object();
+    private EventJsonWriter writing = new EventJsonWriter(4096);
+    // Guarded by flushLock: where the last batch that was both written and forced
+    // ends. Anything past it is left over from a failed write and is cut off.
+    private long durableSize;
+    private final ChannelOpener opener;
+
+    EventJournal(String snapshotPath, ChannelOpener opener) {
+        this.opener = opener;
+        this.snapshotPath = Path.of(snapshotPath);
+        this.journalPath = Path.of(snapshotPath + ".journal");
+        this.segmentPrefix = this.journalPath.getFileName() + ".compacting-";
+        this.tempSnapshotPath = Path.of(snapshotPath + ".tmp");
+    }
+
+    Path getTempSnapshotPath() {
+        return tempSnapshotPath;
+    }
+
+    synchronized void record(String op, Object... keyValues) {
+        try {
+            pending.writeAscii("{\"op\":");
+            pending.writeString(op);
+            for (int i = 0; i < keyValues.length; i += 2) {
+                pending.writeByte(',');
+                pending.writeString((String) keyValues[i]);
+                pending.writeByte(':');
+                Object value = keyValues[i + 1];
+                if (value instanceof Number number) {
+                    pending.writeLong(number.longValue());
+                } else {
+                    pending.writeString(String.valueOf(value));
+                }
+            }
+            pending.writeAscii("}\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory writes do not fail
+        }
+    }
+
+    void flush() throws IOException {
+        synchronized (flushLock) {
+            if (!writing.isEmpty()) write(); // retry a batch whose write failed, ahead of newer entries
+            synchronized (this) {
+                if (pending.isEmpty()) return;
+                EventJsonWriter batch = pending;
+                pending = writing;
+                writing = batch;
+            }
+            write();
+        }
+    }
+
+    // Caller holds flushLock. The batch is kept until it is both written and
+    // forced; before each attempt the file is cut back to its durable size, so
+    // the part of a failed write that did land never sits in front of the retry.
+    private void write() throws IOException {
+        FileChannel target;
+        synchronized (this) {
+            if (channel == null) {
+                channel = opener.open(journalPath);
+                durableSize = terminateLastLine(channel);
+            }
+            target = channel;
+        }
+        if (target.size() > durableSize) target.truncate(durableSize);
+        target.position(durableSize);
+        writing.copyTo(target);
+        target.force(false);
+        durableSize = target.position();
+        writing.reset();
+    }
+
+    // A journal left torn by a crash ends mid-line; the line is ended so the
+    // entries appended after it stay readable. Returns the resulting size.
+    private static long terminateLastLine(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) return 0;
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        if (last.get(0) == '\n') return size;
+        channel.write(ByteBuffer.wrap(new byte[]{'\n'}), size);
+        channel.force(false);
+        return size + 1;
+    }
+
+    synchronized long size() throws IOException {
+        return Files.exists(journalPath) ? Files.size(journalPath) : 0;
+    }
+
+    boolean shouldCompact() throws IOException {
+        long snapshotSize = Files.exists(snapshotPath) ? Files.size(snapshotPath) : 0;
+        return size() > Math.max(MIN_COMPACTION_SIZE, snapshotSize / 4);
+    }
+
+    // Replays entries that are not yet part of the snapshot. Returns true if an
+    // interrupted compaction or a damaged line was found, in which case the caller
+    // should compact so the files on disk are clean again.
+    boolean replay(Consumer<Entry> consumer) throws IOException {
+        boolean interrupted = Files.exists(tempSnapshotPath);
+        boolean damaged = false;
+        for (Path segment : compactionSegments()) {
+            if (interrupted) {
+                damaged |= replayFile(segment, consumer);
+            } else {
+                Files.delete(segment);
+            }
+        }
+        damaged |= replayFile(journalPath, consumer);
+        return interrupted || damaged;
+    }
+
+    void beginCompaction() throws IOException {
+        synchronized (flushLock) {
+            flush();
+            synchronized (this) {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+                if (!Files.exists(tempSnapshotPath)) {
+                    Files.newOutputStream(tempSnapshotPath).close();
+                }
+                if (Files.exists(journalPath)) {
+                    List<Path> segments = compactionSegments();
+                    int next = segments.isEmpty() ? 1 : segmentNumber(segments.get(segments.size() - 1)) + 1;
+                    Files.move(journalPath, journalPath.resolveSibling(segmentPrefix + next), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+    }
+
+    // Called once the snapshot has been fully written to the temp path
+    void completeCompaction() throws IOException {
+        Files.move(tempSnapshotPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Path segment : compactionSegments()) {
+            Files.delete(segment);
+        }
+    }
+
+    private List<Path> compactionSegments() throws IOException {
+        Path directory = journalPath.toAbsolutePath().getParent();
+        try (var files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(segmentPrefix))
+                    .sorted(Comparator.comparingInt(this::segmentNumber))
+                    .toList();
+        }
+    }
+
+    private int segmentNumber(Path segment) {
+        return Integer.parseInt(segment.getFileName().toString().substring(segmentPrefix.length()));
+    }
+
+    // Returns true if any line could not be read. Only the last line can be
+    // torn by a crash; a damaged line before it is reported and skipped, and
+    // an entry appended straight after a torn line is recovered from it.
+    private static boolean replayFile(Path path, Consumer<Entry> consumer) throws IOException {
+        if (!Files.exists(path)) return false;
+        boolean damaged = false;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            int lineNumber = 0;
+            while (line != null) {
+                lineNumber++;
+                String next = reader.readLine();
+                if (!line.isBlank()) {
+                    Entry entry;
+                    try {
+                        entry = parseEntry(line);
+                    } catch (IOException e) {
+                        damaged = true;
+                        entry = salvageEntry(line);
+                        String where = path + ":" + lineNumber + ": " + e.getMessage();
+                        if (entry != null) {
+                            System.err.println("Recovered journal entry after a torn write at " + where);
+                        } else if (next == null) {
+                            System.err.println("Ignoring torn journal tail at " + where);
+                        } else {
+                            System.err.println("Skipping unreadable journal entry at " + where);
+                        }
+                    }
+                    if (entry != null) {
+                        try {
+                            consumer.accept(entry);
+                        } catch (IllegalArgumentException e) {
+                            // Well-formed but with a value that cannot be applied, such as a non-numeric id
+                            System.err.println("Skipping journal entry at " + path + ":" + lineNumber + ": " + e.getMessage());
+                        }
+                    }
+                }
+                line = next;
+            }
+        }
+        return damaged;
+    }
+
+    // Every entry starts with {"op": and quotes inside values are escaped, so
+    // a later occurrence on an unreadable line is where a whole entry begins
+    private static Entry salvageEntry(String line) {
+        int start = line.lastIndexOf("{\"op\":");
+        if (start <= 0) return null;
+        try {
+            return parseEntry(line.substring(start));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Entry parseEntry(String line) throws IOException {
+        JsonTokenizer json = new JsonTokenizer(new StringReader(line));
+        String op = null;
+        Map<String, String> fields = new HashMap<>();
+        json.beginObject();
+        while (json.hasNext()) {
+            String key = json.nextName();
+            String value = switch (json.peek()) {
+                case STRING -> json.nextString();
+                case NUMBER -> Long.toString(json.nextLong());
+                default -> {
+                    json.skipValue();
+                    yield "";
+                }
+            };
+            if (key.equals("op")) {
+                op = value;
+            } else {
+                fields.put(key, value);
+            }
+        }
+        json.endObject();
+        json.endDocument();
+        if (op == null) throw new IOException("Journal entry without op");
+        return new Entry(op, fields);
+    }
+}
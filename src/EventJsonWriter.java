@@ -0,0 +1,204 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes JSON as UTF-8 straight into a reusable byte buffer. Strings are
+ * escaped and encoded in a single pass, so serializing an event allocates
+ * nothing per field. A writer over a channel drains the buffer whenever it
+ * fills; a writer without one grows its buffer and keeps everything in memory
+ * until {@link #writeTo} or {@link #toString}.
+ */
+final class EventJsonWriter implements Closeable {
+    interface Body {
+        void writeTo(EventJsonWriter out) throws IOException;
+    }
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+    // Longest output for one input char: a six-byte control escape
+    private static final int MAX_BYTES_PER_CHAR = 6;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final ThreadLocal<EventJsonWriter> SCRATCH = ThreadLocal.withInitial(() -> new EventJsonWriter(256));
+
+    private final WritableByteChannel channel;
+    private byte[] buffer;
+    private ByteBuffer view;
+    private int position;
+
+    EventJsonWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_CAPACITY);
+    }
+
+    // A smaller buffer suits short-lived writers, such as one per HTTP response
+    EventJsonWriter(WritableByteChannel channel, int capacity) {
+        this.channel = channel;
+        this.buffer = new byte[Math.max(capacity, 16)];
+        this.view = ByteBuffer.wrap(buffer);
+    }
+
+    // In-memory writer
+    EventJsonWriter(int initialCapacity) {
+        this.channel = null;
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+        this.view = ByteBuffer.wrap(buffer);
+    }
+
+    // Serializes to a String through a per-thread scratch buffer
+    static String toJson(Body body) {
+        EventJsonWriter out = SCRATCH.get();
+        try {
+            body.writeTo(out);
+            return out.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory writes do not fail
+        } finally {
+            out.reset();
+            if (out.buffer.length > MAX_RETAINED_CAPACITY) SCRATCH.remove();
+        }
+    }
+
+    void writeByte(char c) throws IOException {
+        if (position == buffer.length) makeRoom(1);
+        buffer[position++] = (byte) c;
+    }
+
+    // Writes a literal that is known to be plain ASCII, such as a field name
+    void writeAscii(String literal) throws IOException {
+        int length = literal.length();
+        if (buffer.length - position < length) makeRoom(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) literal.charAt(i);
+        }
+    }
+
+    void writeLong(long value) throws IOException {
+        if (buffer.length - position < 20) makeRoom(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+        } else {
+            value = -value; // work in negatives so Long.MIN_VALUE fits
+        }
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' - (value % 10));
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte b = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = b;
+        }
+    }
+
+    // Quoted and escaped; null is written as an empty string
+    void writeString(String value) throws IOException {
+        writeByte('"');
+        if (value != null) {
+            for (int i = 0, length = value.length(); i < length; i++) {
+                if (buffer.length - position < MAX_BYTES_PER_CHAR) makeRoom(MAX_BYTES_PER_CHAR);
+                char c = value.charAt(i);
+                if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x80) {
+                    writeEscape(c);
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    buffer[position++] = '?'; // unpaired surrogate, as String.getBytes does
+                } else {
+                    buffer[position++] = (byte) (0xE0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeEscape(char c) {
+        buffer[position++] = '\\';
+        switch (c) {
+            case '"' -> buffer[position++] = '"';
+            case '\\' -> buffer[position++] = '\\';
+            case '\n' -> buffer[position++] = 'n';
+            case '\r' -> buffer[position++] = 'r';
+            case '\t' -> buffer[position++] = 't';
+            default -> {
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = HEX[c >> 4];
+                buffer[position++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return position == 0;
+    }
+
+    // Bytes buffered and not yet written out
+    int size() {
+        return position;
+    }
+
+    // Hands the buffered bytes to the target and empties the buffer
+    void writeTo(WritableByteChannel target) throws IOException {
+        view.clear().limit(position);
+        while (view.hasRemaining()) {
+            target.write(view);
+        }
+        position = 0;
+    }
+
+    // As writeTo, but the bytes stay buffered until reset(), for a caller
+    // that must be able to write them again if they do not reach the disk
+    void copyTo(WritableByteChannel target) throws IOException {
+        view.clear().limit(position);
+        while (view.hasRemaining()) {
+            target.write(view);
+        }
+    }
+
+    void flush() throws IOException {
+        if (channel != null) writeTo(channel);
+    }
+
+    void reset() {
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, position, StandardCharsets.UTF_8);
+    }
+
+    private void makeRoom(int needed) throws IOException {
+        if (channel != null) {
+            writeTo(channel);
+            if (buffer.length >= needed) return;
+        }
+        int capacity = buffer.length;
+        while (capacity - position < needed) capacity *= 2;
+        byte[] grown = new byte[capacity];
+        System.arraycopy(buffer, 0, grown, 0, position);
+        buffer = grown;
+        view = ByteBuffer.wrap(buffer);
+    }
+}
@@ -1,65 +1,623 @@
-import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Thread-safe core. The event list and its indexes are guarded by a
+ * read-write lock: adding or removing events takes the write lock, while
+ * queries and attendee changes share the read lock. Attendee changes are then
+ * serialized per event by locking the Event itself, so registrations for
+ * different events proceed in parallel. Readers of {@link #getAllEvents} get
+ * an immutable snapshot that is rebuilt only after the list changes.
+ */
 public class EventManagerApp {
+    public enum LoadMode {
+        STREAMING, // Parse the whole file, attendees included
+        MAPPED,    // Memory-map the file and decode attendees on first access
+        PARALLEL   // Parse the whole file in chunks across the load threads
+    }
+
+    // Notified after each change, on the thread that made it and while the
+    // change still holds its lock, so notifications arrive in mutation order
+    public interface ChangeListener {
+        void eventsAdded(int firstIndex, List<Event> added);
+
+        void eventRemoved(int index, Event event);
+
+        void eventUpdated(Event event);
+
+        void eventsCleared();
+    }
+
+    // An attendee found by a full-text search, with the event it is registered for
+    public record AttendeeMatch(Event event, Attendee attendee) {
+    }
+
+    // One registration in a batch that may span events
+    public record Registration(String eventTitle, Attendee attendee, Event.DedupPolicy policy) {
+    }
+
+    // What a registration came to, with the attendee as stored unless it was refused
+    public record RegistrationResult(Event.RegistrationOutcome outcome, Attendee attendee) {
+    }
+
     private final List<Event> events;
+    private final EventIndex index;
+    private final EventTextIndex textIndex = new EventTextIndex();
+    private volatile AttendeeEmailIndex emailIndex; // built on first lookup, then kept current
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile List<Event> snapshot = List.of();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
     private final EventFileHandler fileHandler;
+    private volatile Event.DedupPolicy dedupPolicy = Event.DedupPolicy.REJECT;
 
     public EventManagerApp() {
+        this("C:\\Users\\kaust\\IdeaProjects\\EventManagementApp2\\src\\events.json"); // Relative path
+    }
+
+    public EventManagerApp(String filePath) {
+        this(filePath, EventJournal.ChannelOpener.DEFAULT);
+    }
+
+    // Opens the journal through the given opener, so a harness can inject write failures
+    EventManagerApp(String filePath, EventJournal.ChannelOpener journalOpener) {
         this.events = new ArrayList<>();
-        this.fileHandler = new EventFileHandler("C:\\Users\\kaust\\IdeaProjects\\EventManagementApp2\\src\\events.json"); // Relative path
+        this.index = new EventIndex();
+        this.fileHandler = new EventFileHandler(filePath, journalOpener);
+    }
+
+    // Returns the events the listener's notifications are relative to
+    public List<Event> addChangeListener(ChangeListener listener) {
+        return write(() -> {
+            listeners.add(listener);
+            return List.copyOf(events);
+        });
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
     }
 
     // File Operations
     public void loadEvents() {
-        events.clear();
-        events.addAll(fileHandler.loadEvents());
+        loadEvents(LoadMode.STREAMING);
+    }
+
+    // Number of threads used by LoadMode.PARALLEL; defaults to one per core
+    public void setLoadThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be positive: " + threads);
+        fileHandler.loadThreads = threads;
+    }
+
+    public void loadEvents(LoadMode mode) {
+        List<Event> loaded = fileHandler.loadEvents(mode);
+        write(() -> {
+            beginLoad();
+            addLoadedEvents(loaded);
+            finishLoad();
+            return null;
+        });
+    }
+
+    // Incremental loading: beginLoad, then addLoadedEvents for each batch
+    // produced by readEvents (which may run on another thread), then finishLoad
+    public void beginLoad() {
+        write(() -> {
+            events.clear();
+            index.clear();
+            textIndex.clear();
+            emailIndex = null;
+            snapshot = List.of();
+            listeners.forEach(ChangeListener::eventsCleared);
+            return null;
+        });
     }
 
+    public void readEvents(Consumer<Event> sink, IntConsumer progressPercent) throws IOException {
+        fileHandler.readEvents(sink, progressPercent);
+    }
+
+    public void addLoadedEvents(List<Event> loaded) {
+        if (loaded.isEmpty()) return;
+        write(() -> {
+            int firstIndex = events.size();
+            events.addAll(loaded);
+            loaded.forEach(index::add);
+            snapshot = null;
+            listeners.forEach(listener -> listener.eventsAdded(firstIndex, loaded));
+            return null;
+        });
+    }
+
+    public void finishLoad() {
+        write(() -> {
+            restoreTextIndex();
+            if (fileHandler.replayJournal(this::applyJournalEntry)) {
+                compactEvents();
+            }
+            return null;
+        });
+    }
+
+    // Appends the changes made since the last save to the journal. The fsync
+    // happens outside the lock; only the compaction cut needs exclusive access.
     public void saveEvents() {
-        fileHandler.saveEvents(events);
+        try {
+            saveEventsDurably();
+        } catch (IOException e) {
+            System.err.println("Error saving events: " + e.getMessage());
+        }
+    }
+
+    // As saveEvents, but a failed flush is thrown rather than logged, for
+    // callers that acknowledge changes only once they are on disk
+    void saveEventsDurably() throws IOException {
+        fileHandler.flush();
+        if (fileHandler.compactionDue()) {
+            write(() -> {
+                fileHandler.compactInBackground(events, textIndex);
+                return null;
+            });
+        }
+    }
+
+    // Flushes the journal and waits for a background compaction, for callers about to exit
+    public void shutdown() {
+        saveEvents();
+        fileHandler.awaitCompaction();
+    }
+
+    // Rewrites the snapshot from the current state and clears the journal
+    public void compactEvents() {
+        fileHandler.awaitCompaction();
+        EventFileHandler.Cut cut = write(() -> fileHandler.beginCompaction(events, textIndex));
+        if (cut != null) fileHandler.writeSnapshot(cut);
+    }
+
+    // The loaded events match the snapshot the saved search index was cut
+    // from, so it can be reused unless the snapshot changed since. A rebuilt
+    // index is saved right away, before the journal moves past the snapshot,
+    // unless mapped events are still to decode their attendees into it.
+    private void restoreTextIndex() {
+        EventTextIndex.Image saved = fileHandler.readTextIndex();
+        if (saved != null && textIndex.restore(saved, events)) return;
+        for (Event event : events) {
+            textIndex.addLazily(event);
+        }
+        fileHandler.saveTextIndexInBackground(textIndex.export(events));
     }
 
     // Event CRUD Operations
     public void createEvent(String title, String date, String location, String type) {
-        events.add(new Event(title, date, location, type));
+        createEvent(title, date, location, type, 0);
+    }
+
+    // A capacity of 0 means unlimited
+    public void createEvent(String title, String date, String location, String type, int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        write(() -> {
+            applyCreateEvent(title, date, location, type, capacity);
+            recordCreateEvent(title, date, location, type, capacity);
+            return null;
+        });
+    }
+
+    // Checks and creates under one write lock, so concurrent callers cannot
+    // both create the same title. Returns false if the title is taken.
+    public boolean createEventIfAbsent(String title, String date, String location, String type, int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        return write(() -> {
+            if (index.findFirstByTitle(title).isPresent()) return false;
+            applyCreateEvent(title, date, location, type, capacity);
+            recordCreateEvent(title, date, location, type, capacity);
+            return true;
+        });
+    }
+
+    private void recordCreateEvent(String title, String date, String location, String type, int capacity) {
+        if (capacity > 0) {
+            fileHandler.record("create", "title", title, "date", date, "location", location, "type", type, "capacity", capacity);
+        } else {
+            fileHandler.record("create", "title", title, "date", date, "location", location, "type", type);
+        }
+    }
+
+    // Raising the capacity seats waitlisted attendees in order; lowering it
+    // never unseats anyone. Returns false if there is no such event.
+    public boolean setCapacity(String eventTitle, int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        return read(() -> {
+            Optional<Event> event = index.findFirstByTitle(eventTitle);
+            if (event.isEmpty()) return false;
+            synchronized (event.get()) {
+                applySetCapacity(event.get(), capacity);
+                fileHandler.record("capacity", "event", eventTitle, "capacity", capacity);
+            }
+            return true;
+        });
     }
 
     public boolean deleteEvent(String title) {
-        return events.removeIf(e -> e.getTitle().equals(title));
+        return write(() -> {
+            boolean deleted = applyDeleteEvent(title);
+            if (deleted) fileHandler.record("delete", "title", title);
+            return deleted;
+        });
     }
 
     // Event Queries
     public Optional<Event> findEventByTitle(String title) {
-        return events.stream()
-                .filter(e -> e.getTitle().equals(title))
-                .findFirst();
+        return read(() -> index.findFirstByTitle(title));
     }
 
     public List<Event> findEventsByType(String type) {
-        return events.stream()
-                .filter(e -> e.getType().equalsIgnoreCase(type))
-                .collect(Collectors.toList());
+        return read(() -> index.findByType(type));
+    }
+
+    // Inclusive date range, in date order. Events whose date does not parse are never matched.
+    public List<Event> findEventsBetween(LocalDate from, LocalDate to) {
+        return read(() -> index.findBetween(from, to));
+    }
+
+    // As above with YYYY-MM-DD bounds; an invalid bound matches nothing
+    public List<Event> findEventsBetween(String fromDate, String toDate) {
+        LocalDate from = Validators.parseDate(fromDate);
+        LocalDate to = Validators.parseDate(toDate);
+        if (from == null || to == null) return new ArrayList<>();
+        return findEventsBetween(from, to);
+    }
+
+    // The next events from today on, in date order
+    public List<Event> findUpcomingEvents(int limit) {
+        return findUpcomingEvents(LocalDate.now(), limit);
+    }
+
+    public List<Event> findUpcomingEvents(LocalDate from, int limit) {
+        return read(() -> index.findFrom(from, limit));
+    }
+
+    // Full-text search over event titles, locations and types and attendee
+    // names and emails; see EventTextIndex.Query for the syntax
+    public List<Event> searchEvents(String query) {
+        return read(() -> textIndex.searchEvents(EventTextIndex.Query.parse(query)));
+    }
+
+    // Every registration whose attendee name and email match, which answers
+    // "which events is this person registered for" without scanning attendees
+    public List<AttendeeMatch> searchAttendees(String query) {
+        return read(() -> {
+            List<AttendeeMatch> result = new ArrayList<>();
+            for (EventTextIndex.Match match : textIndex.searchAttendees(EventTextIndex.Query.parse(query))) {
+                Attendee attendee = match.event().getAttendee(match.attendeeId());
+                if (attendee != null) result.add(new AttendeeMatch(match.event(), attendee));
+            }
+            return result;
+        });
+    }
+
+    // Row-at-a-time form of searchEvents for table filters; the index caches the last query
+    boolean matchesSearch(Event event, EventTextIndex.Query query) {
+        return textIndex.matches(event, query);
+    }
+
+    // Every event the email is registered for; emails compare trimmed and case-insensitively
+    public List<Event> findEventsForAttendee(String email) {
+        AttendeeEmailIndex emails = emailIndex();
+        return read(() -> emails.find(email));
+    }
+
+    // Removes every registration of the email from every event, as a data
+    // deletion request needs, and returns how many were removed. The removals
+    // are journaled; older records of the email stay on disk until the next
+    // compaction.
+    public int unregisterEverywhere(String email) {
+        AttendeeEmailIndex emails = emailIndex();
+        return write(() -> {
+            int removed = 0;
+            for (Event event : emails.find(email)) {
+                for (Attendee attendee : applyRemoveAttendees(event, event.attendeeIdsFor(email))) {
+                    fileHandler.record("remove", "event", event.getTitle(), "id", attendee.getId());
+                    removed++;
+                }
+            }
+            return removed;
+        });
+    }
+
+    // Must not be called with the read lock held, since a first call builds the index
+    private AttendeeEmailIndex emailIndex() {
+        AttendeeEmailIndex current = emailIndex;
+        if (current != null) return current;
+        return write(() -> {
+            if (emailIndex == null) {
+                AttendeeEmailIndex built = new AttendeeEmailIndex();
+                for (Event event : events) {
+                    built.addAll(event, event.getAttendees());
+                    built.addAll(event, event.getWaitlist());
+                }
+                emailIndex = built;
+            }
+            return emailIndex;
+        });
     }
 
     // Attendee Management
-    public boolean registerAttendee(String eventTitle, String name, String email) {
-        return findEventByTitle(eventTitle)
-                .map(event -> event.registerAttendee(new Attendee(name, email)))
-                .orElse(false);
+    // Policy used when registering an email the event already has
+    public void setDedupPolicy(Event.DedupPolicy policy) {
+        dedupPolicy = Objects.requireNonNull(policy);
     }
 
-    public boolean removeAttendee(String eventTitle, int attendeeIndex) {
-        return findEventByTitle(eventTitle)
-                .map(event -> event.removeAttendee(attendeeIndex))
-                .orElse(false);
+    public Event.RegistrationOutcome registerAttendee(String eventTitle, String name, String email) {
+        return registerAttendee(eventTitle, name, email, dedupPolicy);
+    }
+
+    public Event.RegistrationOutcome registerAttendee(String eventTitle, String name, String email, Event.DedupPolicy policy) {
+        return read(() -> {
+            Optional<Event> event = index.findFirstByTitle(eventTitle);
+            if (event.isEmpty()) return Event.RegistrationOutcome.NO_EVENT;
+            synchronized (event.get()) {
+                Attendee attendee = new Attendee(name, email);
+                Attendee registered = applyRegisterAttendee(event.get(), attendee, policy);
+                if (registered != null) {
+                    fileHandler.record("register", "event", eventTitle, "id", registered.getId(), "name", name, "email", email, "policy", policy.name());
+                }
+                return event.get().outcome(attendee, registered);
+            }
+        });
+    }
+
+    // Registers a batch under one lock and with one notification. The result
+    // holds the stored attendee, or null where the dedup policy rejected one;
+    // it is empty if there is no such event.
+    public List<Attendee> registerAttendees(String eventTitle, List<Attendee> attendees, Event.DedupPolicy policy) {
+        return read(() -> {
+            Optional<Event> event = index.findFirstByTitle(eventTitle);
+            if (event.isEmpty()) return Collections.<Attendee>emptyList();
+            List<Registration> registrations = new ArrayList<>(attendees.size());
+            for (Attendee attendee : attendees) {
+                registrations.add(new Registration(eventTitle, attendee, policy));
+            }
+            List<RegistrationResult> results;
+            synchronized (event.get()) {
+                results = registerLocked(event.get(), registrations);
+            }
+            List<Attendee> registered = new ArrayList<>(results.size());
+            for (RegistrationResult result : results) {
+                registered.add(result.attendee());
+            }
+            return registered;
+        });
+    }
+
+    // Registers a batch spanning any number of events under one read-lock
+    // acquisition, locking and notifying each event once. The results line up
+    // with the input. Nothing is flushed; the caller saves once for the whole
+    // batch.
+    public List<RegistrationResult> registerAll(List<Registration> registrations) {
+        return read(() -> {
+            Map<String, List<Integer>> byTitle = new LinkedHashMap<>();
+            for (int i = 0; i < registrations.size(); i++) {
+                byTitle.computeIfAbsent(registrations.get(i).eventTitle(), title -> new ArrayList<>()).add(i);
+            }
+            RegistrationResult[] results = new RegistrationResult[registrations.size()];
+            byTitle.forEach((title, positions) -> {
+                Optional<Event> event = index.findFirstByTitle(title);
+                if (event.isEmpty()) {
+                    positions.forEach(position -> results[position] = new RegistrationResult(Event.RegistrationOutcome.NO_EVENT, null));
+                    return;
+                }
+                List<Registration> group = new ArrayList<>(positions.size());
+                positions.forEach(position -> group.add(registrations.get(position)));
+                List<RegistrationResult> registered;
+                synchronized (event.get()) {
+                    registered = registerLocked(event.get(), group);
+                }
+                for (int i = 0; i < positions.size(); i++) {
+                    results[positions.get(i)] = registered.get(i);
+                }
+            });
+            return Arrays.asList(results);
+        });
+    }
+
+    // Caller holds the read lock and the event's monitor. Waitlisted
+    // attendees are indexed by email but not searchable until seated.
+    private List<RegistrationResult> registerLocked(Event event, List<Registration> registrations) {
+        List<RegistrationResult> results = new ArrayList<>(registrations.size());
+        List<Attendee> added = new ArrayList<>(registrations.size());
+        List<Attendee> seated = new ArrayList<>(registrations.size());
+        List<Long> replacedIds = new ArrayList<>();
+        for (Registration registration : registrations) {
+            Event.DedupPolicy policy = registration.policy();
+            boolean replacing = policy == Event.DedupPolicy.REPLACE && event.isRegistered(registration.attendee().getEmail());
+            Attendee stored = event.register(registration.attendee(), policy);
+            Event.RegistrationOutcome outcome = event.outcome(registration.attendee(), stored);
+            results.add(new RegistrationResult(outcome, stored));
+            if (stored != null) {
+                added.add(stored);
+                if (outcome == Event.RegistrationOutcome.REGISTERED) seated.add(stored);
+                if (replacing) replacedIds.add(stored.getId());
+                fileHandler.record("register", "event", registration.eventTitle(), "id", stored.getId(), "name", stored.getName(), "email", stored.getEmail(), "policy", policy.name());
+            }
+        }
+        if (!added.isEmpty()) {
+            textIndex.attendeesChanged(event, seated, replacedIds);
+            AttendeeEmailIndex emails = emailIndex;
+            if (emails != null) emails.addAll(event, added);
+            listeners.forEach(listener -> listener.eventUpdated(event));
+        }
+        return results;
+    }
+
+    public boolean isAttendeeRegistered(String eventTitle, String email) {
+        return findEventByTitle(eventTitle).map(event -> event.isRegistered(email)).orElse(false);
+    }
+
+    public boolean removeAttendee(String eventTitle, long attendeeId) {
+        return removeAttendees(eventTitle, List.of(attendeeId)) == 1;
+    }
+
+    // Removes every listed attendee under one lock and with one notification
+    public int removeAttendees(String eventTitle, Collection<Long> attendeeIds) {
+        return read(() -> {
+            Optional<Event> event = index.findFirstByTitle(eventTitle);
+            if (event.isEmpty()) return 0;
+            synchronized (event.get()) {
+                List<Attendee> removed = applyRemoveAttendees(event.get(), attendeeIds);
+                for (Attendee attendee : removed) {
+                    fileHandler.record("remove", "event", eventTitle, "id", attendee.getId());
+                }
+                return removed.size();
+            }
+        });
+    }
+
+    // Mutations shared by the public API and journal replay; callers hold the lock
+    private void applyCreateEvent(String title, String date, String location, String type, int capacity) {
+        Event event = new Event(title, date, location, type, capacity);
+        events.add(event);
+        index.add(event);
+        textIndex.add(event, List.of());
+        snapshot = null;
+        List<Event> added = List.of(event);
+        listeners.forEach(listener -> listener.eventsAdded(events.size() - 1, added));
+    }
+
+    private boolean applyDeleteEvent(String title) {
+        List<Event> removed = index.removeByTitle(title);
+        for (Event event : removed) {
+            int position = events.indexOf(event);
+            events.remove(position);
+            textIndex.remove(event);
+            AttendeeEmailIndex emails = emailIndex;
+            if (emails != null) {
+                for (Attendee attendee : event.getAttendees()) {
+                    emails.remove(attendee.getEmail(), event);
+                }
+                for (Attendee attendee : event.getWaitlist()) {
+                    emails.remove(attendee.getEmail(), event);
+                }
+            }
+            listeners.forEach(listener -> listener.eventRemoved(position, event));
+        }
+        if (!removed.isEmpty()) snapshot = null;
+        return !removed.isEmpty();
+    }
+
+    private Attendee applyRegisterAttendee(Event event, Attendee attendee, Event.DedupPolicy policy) {
+        boolean replacing = policy == Event.DedupPolicy.REPLACE && event.isRegistered(attendee.getEmail());
+        Attendee registered = event.register(attendee, policy);
+        if (registered != null) {
+            List<Attendee> seated = event.isWaitlisted(registered.getId()) ? List.of() : List.of(registered);
+            textIndex.attendeesChanged(event, seated, replacing ? List.of(registered.getId()) : List.of());
+            AttendeeEmailIndex emails = emailIndex;
+            if (emails != null) emails.add(registered.getEmail(), event);
+            listeners.forEach(listener -> listener.eventUpdated(event));
+        }
+        return registered;
+    }
+
+    // Seats freed here go to the waitlist, whose promoted attendees become searchable
+    private List<Attendee> applyRemoveAttendees(Event event, Collection<Long> attendeeIds) {
+        List<Attendee> promoted = new ArrayList<>();
+        List<Attendee> removed = event.removeAttendees(attendeeIds, promoted);
+        if (!removed.isEmpty()) {
+            textIndex.attendeesChanged(event, promoted, removed.stream().map(Attendee::getId).toList());
+            AttendeeEmailIndex emails = emailIndex;
+            if (emails != null) {
+                for (Attendee attendee : removed) {
+                    if (!event.isRegistered(attendee.getEmail())) emails.remove(attendee.getEmail(), event);
+                }
+            }
+            listeners.forEach(listener -> listener.eventUpdated(event));
+        }
+        return removed;
+    }
+
+    private void applySetCapacity(Event event, int capacity) {
+        List<Attendee> promoted = event.setCapacity(capacity);
+        if (!promoted.isEmpty()) textIndex.attendeesChanged(event, promoted, List.of());
+        listeners.forEach(listener -> listener.eventUpdated(event));
+    }
+
+    private void applyJournalEntry(EventJournal.Entry entry) {
+        switch (entry.op()) {
+            case "create" -> applyCreateEvent(entry.get("title"), entry.get("date"), entry.get("location"), entry.get("type"),
+                    entry.get("capacity").isEmpty() ? 0 : entry.getInt("capacity"));
+            case "delete" -> applyDeleteEvent(entry.get("title"));
+            case "register" -> index.findFirstByTitle(entry.get("event"))
+                    .ifPresent(event -> applyRegisterAttendee(event, journaledAttendee(entry), journaledPolicy(entry)));
+            case "remove" -> index.findFirstByTitle(entry.get("event"))
+                    .ifPresent(event -> applyRemoveAttendees(event, List.of(journaledAttendeeId(event, entry))));
+            case "capacity" -> index.findFirstByTitle(entry.get("event"))
+                    .ifPresent(event -> applySetCapacity(event, entry.getInt("capacity")));
+            default -> System.err.println("Unknown journal entry: " + entry.op());
+        }
+    }
+
+    private static Attendee journaledAttendee(EventJournal.Entry entry) {
+        long id = entry.get("id").isEmpty() ? 0 : entry.getLong("id");
+        return new Attendee(id, entry.get("name"), entry.get("email"));
+    }
+
+    // Entries written before attendees had ids removed by list position
+    private static long journaledAttendeeId(Event event, EventJournal.Entry entry) {
+        if (!entry.get("id").isEmpty()) return entry.getLong("id");
+        List<Attendee> attendees = event.getAttendees();
+        int position = entry.getInt("index");
+        return position >= 0 && position < attendees.size() ? attendees.get(position).getId() : 0;
+    }
+
+    // Entries written before dedup policies existed registered unconditionally,
+    // and so do entries naming a policy this version does not know
+    private static Event.DedupPolicy journaledPolicy(EventJournal.Entry entry) {
+        String policy = entry.get("policy");
+        if (policy.isEmpty()) return Event.DedupPolicy.ALLOW;
+        try {
+            return Event.DedupPolicy.valueOf(policy);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown dedup policy in journal, registering unconditionally: " + policy);
+            return Event.DedupPolicy.ALLOW;
+        }
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     // Data Access
     public List<Event> getAllEvents() {
-        return Collections.unmodifiableList(events);
+        List<Event> current = snapshot;
+        if (current != null) return current;
+        // Writers reset the snapshot under the write lock, so publishing under
+        // the read lock can never overwrite a newer invalidation
+        return read(() -> snapshot = List.copyOf(events));
     }
 
     public List<Attendee> getEventAttendees(String eventTitle) {
@@ -69,68 +627,283 @@ public class EventManagerApp {
     }
 
     public String[] getEventTitles() {
-        return events.stream()
+        return getAllEvents().stream()
                 .map(Event::getTitle)
                 .toArray(String[]::new);
     }
 
     // Display Methods
     public String getEventListDisplay() {
-        return events.stream()
+        return getAllEvents().stream()
                 .map(e -> String.format("%s (%s)", e.getTitle(), e.getDate()))
                 .collect(Collectors.joining("\n"));
     }
 
     public String getEventDetailsDisplay() {
-        if (events.isEmpty()) {
+        List<Event> current = getAllEvents();
+        if (current.isEmpty()) {
             return "No events found.";
         }
-        return events.stream()
+        return current.stream()
                 .map(Event::getDetails)
                 .collect(Collectors.joining("\n\n"));
     }
 
     // Inner class for file handling
     private static class EventFileHandler {
+        // Copies taken at a journal cut, for writing outside the lock
+        record Cut(List<Event> events, EventTextIndex.Image textIndex) {
+        }
+
         private final String filePath;
+        private final EventJournal journal;
+        private final EventBinarySnapshot binarySnapshot;
+        private final Path textIndexPath;
+        private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private volatile Future<?> compaction = CompletableFuture.completedFuture(null);
+        // The mapping the events of a MAPPED load decode their attendees from.
+        // Compaction replaces the file, which Windows refuses while it is
+        // mapped, so the attendees are decoded and the mapping closed first.
+        // A reload drops it to the garbage collector, as old events may still use it.
+        private volatile MappedEventLoader mappedFile;
+        private volatile int loadThreads = Runtime.getRuntime().availableProcessors();
 
-        public EventFileHandler(String filePath) {
+        public EventFileHandler(String filePath, EventJournal.ChannelOpener journalOpener) {
             this.filePath = filePath;
+            this.journal = new EventJournal(filePath, journalOpener);
+            this.binarySnapshot = new EventBinarySnapshot(filePath);
+            this.textIndexPath = Path.of(filePath + ".idx");
         }
 
-        public List<Event> loadEvents() {
+        public List<Event> loadEvents(LoadMode mode) {
+            awaitCompaction();
+            mappedFile = null;
+            if (mode == LoadMode.STREAMING && binarySnapshot.isFresh()) {
+                try {
+                    return binarySnapshot.read();
+                } catch (IOException e) {
+                    System.err.println("Error loading binary snapshot, falling back to JSON: " + e.getMessage());
+                }
+            }
             try {
-                return Event.EventJsonParser.loadEventsFromFile(filePath);
+                return switch (mode) {
+                    case STREAMING -> Event.EventJsonParser.loadEventsFromFile(filePath);
+                    case MAPPED -> loadMapped();
+                    case PARALLEL -> Event.EventJsonParser.loadEventsParallel(filePath, loadThreads);
+                };
             } catch (IOException e) {
                 System.err.println("Error loading events: " + e.getMessage());
                 return Collections.emptyList();
             }
         }
 
-        public void saveEvents(List<Event> events) {
-            try (PrintWriter writer = new PrintWriter(filePath)) {
-                writer.println("[");
-                for (int i = 0; i < events.size(); i++) {
-                    writer.print(events.get(i).convertToJson());
-                    if (i < events.size() - 1) writer.println(",");
+        private List<Event> loadMapped() throws IOException {
+            MappedEventLoader file = MappedEventLoader.open(filePath);
+            try {
+                List<Event> loaded = file.readEvents();
+                mappedFile = file;
+                return loaded;
+            } catch (IOException | RuntimeException e) {
+                file.close();
+                throw e;
+            }
+        }
+
+        // Caller holds the write lock, so no event is decoding while the mapping closes
+        private void closeMapping(List<Event> events) {
+            MappedEventLoader file = mappedFile;
+            if (file == null) return;
+            try {
+                for (Event event : events) {
+                    event.decodeAttendees();
                 }
-                writer.println("\n]");
+            } catch (UncheckedIOException e) {
+                System.err.println("Error decoding attendees, keeping the events file mapped: " + e.getMessage());
+                return;
+            }
+            mappedFile = null;
+            file.close();
+        }
+
+        public void readEvents(Consumer<Event> sink, IntConsumer progressPercent) throws IOException {
+            awaitCompaction();
+            if (binarySnapshot.isFresh()) {
+                binarySnapshot.read(sink, progressPercent);
+                return;
+            }
+            long size = Math.max(1, Files.size(Path.of(filePath)));
+            try (CountingInputStream in = new CountingInputStream(new FileInputStream(filePath));
+                 Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                int[] lastPercent = {-1};
+                Event.EventJsonParser.parseEvents(reader, event -> {
+                    sink.accept(event);
+                    int percent = (int) Math.min(100, in.getCount() * 100 / size);
+                    if (percent != lastPercent[0]) {
+                        lastPercent[0] = percent;
+                        progressPercent.accept(percent);
+                    }
+                });
+            }
+            progressPercent.accept(100);
+        }
+
+        public boolean replayJournal(Consumer<EventJournal.Entry> consumer) {
+            try {
+                return journal.replay(consumer);
             } catch (IOException e) {
-                System.err.println("Error saving events: " + e.getMessage());
+                System.err.println("Error replaying journal: " + e.getMessage());
+                return false;
+            }
+        }
+
+        public void record(String op, Object... keyValues) {
+            journal.record(op, keyValues);
+        }
+
+        public void flush() throws IOException {
+            journal.flush();
+        }
+
+        public boolean compactionDue() {
+            try {
+                return compaction.isDone() && journal.shouldCompact();
+            } catch (IOException e) {
+                System.err.println("Error checking journal: " + e.getMessage());
+                return false;
+            }
+        }
+
+        // Caller holds the write lock so the copy matches the journal cut
+        public void compactInBackground(List<Event> events, EventTextIndex textIndex) {
+            if (!compaction.isDone()) return;
+            Cut cut = beginCompaction(events, textIndex);
+            if (cut != null) compaction = compactor.submit(() -> writeSnapshot(cut));
+        }
+
+        // Caller holds the write lock so the copy matches the journal cut
+        public Cut beginCompaction(List<Event> events, EventTextIndex textIndex) {
+            closeMapping(events);
+            try {
+                journal.beginCompaction();
+            } catch (IOException e) {
+                System.err.println("Error compacting events: " + e.getMessage());
+                return null;
+            }
+            List<Event> cut = new ArrayList<>(events.size());
+            for (Event event : events) {
+                cut.add(event.snapshot());
+            }
+            return new Cut(cut, textIndex.export(events));
+        }
+
+        public void writeSnapshot(Cut cut) {
+            List<Event> events = cut.events();
+            Path tempPath = journal.getTempSnapshotPath();
+            try {
+                try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    EventJsonWriter out = new EventJsonWriter(channel);
+                    out.writeAscii("[\n");
+                    for (int i = 0; i < events.size(); i++) {
+                        events.get(i).writeJson(out);
+                        out.writeAscii(i < events.size() - 1 ? ",\n" : "\n");
+                    }
+                    out.writeAscii("]\n");
+                    out.flush();
+                    channel.force(true);
+                }
+                journal.completeCompaction();
+            } catch (IOException e) {
+                System.err.println("Error writing snapshot: " + e.getMessage());
+                return;
+            }
+            try {
+                binarySnapshot.write(events);
+            } catch (IOException e) {
+                System.err.println("Error writing binary snapshot: " + e.getMessage());
+            }
+            writeTextIndex(cut.textIndex());
+        }
+
+        // The saved search index, or null if it is missing, unreadable or older than the snapshot
+        public EventTextIndex.Image readTextIndex() {
+            Path jsonPath = Path.of(filePath);
+            try {
+                if (!Files.exists(textIndexPath) || (Files.exists(jsonPath)
+                        && Files.getLastModifiedTime(textIndexPath).compareTo(Files.getLastModifiedTime(jsonPath)) < 0)) {
+                    return null;
+                }
+                return EventTextIndex.Image.read(textIndexPath);
+            } catch (IOException e) {
+                System.err.println("Error loading search index, rebuilding: " + e.getMessage());
+                return null;
+            }
+        }
+
+        // Queued behind any compaction, so it never lands before the snapshot it matches
+        public void saveTextIndexInBackground(EventTextIndex.Image textIndex) {
+            if (textIndex != null) compaction = compactor.submit(() -> writeTextIndex(textIndex));
+        }
+
+        private void writeTextIndex(EventTextIndex.Image textIndex) {
+            if (textIndex == null) return;
+            try {
+                textIndex.write(textIndexPath);
+            } catch (IOException e) {
+                System.err.println("Error writing search index: " + e.getMessage());
+            }
+        }
+
+        private static class CountingInputStream extends FilterInputStream {
+            private long count;
+
+            CountingInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) count++;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) count += n;
+                return n;
+            }
+
+            long getCount() {
+                return count;
+            }
+        }
+
+        public void awaitCompaction() {
+            try {
+                compaction.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("Error compacting events: " + e.getCause().getMessage());
             }
         }
     }
 
     // Additional utility methods
     public boolean isValidEvent(String title) {
-        return title != null && !title.trim().isEmpty();
+        return Validators.isValidTitle(title);
     }
 
     public boolean isValidDate(String date) {
-        return date != null && date.matches("\\d{4}-\\d{2}-\\d{2}");
+        return Validators.isValidDate(date);
     }
 
     public boolean isValidEmail(String email) {
-        return email != null && email.matches("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
+        return Validators.isValidEmail(email);
     }
 }
\ No newline at end of file
@@ -0,0 +1,423 @@
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Headless entry point for scripted jobs. Drives EventManagerApp directly and
+ * never loads AWT or Swing, so it runs on servers without a display.
+ *
+ *   java -cp event-management-app.jar EventManagerCli [--file=events.json]
+ *        [--mode=streaming|mapped|parallel] COMMAND [ARGS]
+ *
+ * Commands:
+ *   list [--type=TYPE] [--from=DATE --to=DATE]     events as JSON lines
+ *   show TITLE                                     one event with its attendees
+ *   create TITLE DATE LOCATION TYPE [--capacity=N]
+ *   capacity TITLE N                               0 means unlimited; raising it seats the waitlist
+ *   delete TITLE
+ *   register TITLE NAME EMAIL [--policy=REJECT|REPLACE|ALLOW]
+ *   unregister EMAIL                               removes the email from every event
+ *   import FILE|- [--format=csv|jsonl] [--policy=POLICY]
+ *   search QUERY...                                full-text search, events as JSON lines
+ *   attendee EMAIL                                 events the email is registered for
+ *   export [FILE|-]                                every event as one JSON array
+ *   report                                         event and attendee counts per type, then totals
+ *   compact                                        rewrites the snapshot, clearing the journal
+ *   batch [FILE|-]                                 one command per line, loading the data once
+ *   serve [--port=8080]                            the HTTP/JSON API of EventApiServer, until killed
+ *
+ * A "-" file means standard input or output. Output is streamed as it is
+ * produced. Changes are journaled and flushed before exit. The exit status is
+ * 0 on success, 1 if a command failed and 2 on a usage error.
+ */
+public final class EventManagerCli {
+    private static final int OK = 0;
+    private static final int FAILED = 1;
+    private static final int USAGE = 2;
+
+    private static final String HELP = """
+            Usage: EventManagerCli [--file=events.json] [--mode=streaming|mapped|parallel] COMMAND [ARGS]
+            Commands: list [--type=TYPE] [--from=DATE --to=DATE] | show TITLE | create TITLE DATE LOCATION TYPE [--capacity=N]
+                      capacity TITLE N | delete TITLE | register TITLE NAME EMAIL [--policy=REJECT|REPLACE|ALLOW] | unregister EMAIL
+                      import FILE|- [--format=csv|jsonl] [--policy=POLICY] | search QUERY... | attendee EMAIL
+                      export [FILE|-] | report | compact | batch [FILE|-] | serve [--port=8080]""";
+
+    private static final class UsageException extends Exception {
+        UsageException(String message) {
+            super(message);
+        }
+    }
+
+    // A command line split into positional arguments and --name=value options
+    private record Command(String name, List<String> args, Map<String, String> options) {
+        static Command parse(List<String> words) {
+            List<String> args = new ArrayList<>();
+            Map<String, String> options = new HashMap<>();
+            for (String word : words.subList(1, words.size())) {
+                int equals = word.indexOf('=');
+                if (word.startsWith("--") && equals > 2) {
+                    options.put(word.substring(2, equals), word.substring(equals + 1));
+                } else {
+                    args.add(word);
+                }
+            }
+            return new Command(words.get(0), args, options);
+        }
+
+        String arg(int index, String what) throws UsageException {
+            if (index >= args.size()) throw new UsageException(name + ": missing " + what);
+            return args.get(index);
+        }
+    }
+
+    private final EventManagerApp app;
+    private final EventJsonWriter out;
+
+    private EventManagerCli(EventManagerApp app, EventJsonWriter out) {
+        this.app = app;
+        this.out = out;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        String file = "events.json";
+        EventManagerApp.LoadMode mode = EventManagerApp.LoadMode.STREAMING;
+        int first = 0;
+        try {
+            for (; first < args.length && args[first].startsWith("--"); first++) {
+                String option = args[first];
+                if (option.startsWith("--file=")) {
+                    file = option.substring("--file=".length());
+                } else if (option.startsWith("--mode=")) {
+                    mode = parseEnum(EventManagerApp.LoadMode.class, option.substring("--mode=".length()), "mode");
+                } else if (option.equals("--help")) {
+                    System.out.println(HELP);
+                    return OK;
+                } else {
+                    throw new UsageException("Unknown option " + option);
+                }
+            }
+            if (first == args.length || args[first].equals("help")) {
+                System.out.println(HELP);
+                return first == args.length ? USAGE : OK;
+            }
+
+            EventManagerApp app = new EventManagerApp(file);
+            app.loadEvents(mode);
+            EventJsonWriter out = new EventJsonWriter(Channels.newChannel(System.out));
+            try {
+                return new EventManagerCli(app, out).execute(Command.parse(List.of(args).subList(first, args.length)));
+            } finally {
+                app.shutdown();
+                out.flush();
+                System.out.flush();
+            }
+        } catch (UsageException e) {
+            System.err.println(e.getMessage());
+            System.err.println(HELP);
+            return USAGE;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error: " + e.getMessage());
+            return FAILED;
+        }
+    }
+
+    private int execute(Command command) throws UsageException, IOException {
+        return switch (command.name()) {
+            case "list" -> list(command);
+            case "show" -> show(command.arg(0, "event title"));
+            case "create" -> create(command.arg(0, "title"), command.arg(1, "date"), command.arg(2, "location"), command.arg(3, "type"),
+                    capacity(command.options().getOrDefault("capacity", "0")));
+            case "capacity" -> setCapacity(command.arg(0, "event title"), capacity(command.arg(1, "capacity")));
+            case "delete" -> delete(command.arg(0, "event title"));
+            case "register" -> register(command.arg(0, "event title"), command.arg(1, "name"), command.arg(2, "email"), policy(command));
+            case "unregister" -> unregister(command.arg(0, "email"));
+            case "import" -> importAttendees(command.arg(0, "file"), command.options().get("format"), policy(command));
+            case "search" -> search(String.join(" ", command.args()));
+            case "attendee" -> writeEvents(app.findEventsForAttendee(command.arg(0, "email")));
+            case "export" -> export(command.args().isEmpty() ? "-" : command.args().get(0));
+            case "report" -> report();
+            case "compact" -> {
+                app.compactEvents();
+                yield OK;
+            }
+            case "batch" -> batch(command.args().isEmpty() ? "-" : command.args().get(0));
+            case "serve" -> serve(command.options().getOrDefault("port", "8080"));
+            default -> throw new UsageException("Unknown command " + command.name());
+        };
+    }
+
+    // Serves until the JVM is told to exit, then drains requests and flushes the journal
+    private int serve(String port) throws UsageException, IOException {
+        int number;
+        try {
+            number = Integer.parseInt(port);
+        } catch (NumberFormatException e) {
+            throw new UsageException("serve: --port must be a number");
+        }
+        EventApiServer server = new EventApiServer(app, new InetSocketAddress(number));
+        server.start();
+        System.err.println("Serving " + app.getAllEvents().size() + " events on port " + server.getPort());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(2);
+            app.shutdown();
+        }));
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return OK;
+    }
+
+    private int list(Command command) throws UsageException, IOException {
+        String type = command.options().get("type");
+        String from = command.options().get("from");
+        String to = command.options().get("to");
+        if ((from == null) != (to == null)) throw new UsageException("list: --from and --to go together");
+        if (from != null && (!app.isValidDate(from) || !app.isValidDate(to))) throw new UsageException("list: dates must be YYYY-MM-DD");
+
+        List<Event> events = from != null ? app.findEventsBetween(from, to)
+                : type != null ? app.findEventsByType(type)
+                : app.getAllEvents();
+        if (from != null && type != null) {
+            events = events.stream().filter(event -> type.equalsIgnoreCase(event.getType())).toList();
+        }
+        return writeEvents(events);
+    }
+
+    private int show(String title) throws IOException {
+        Optional<Event> event = app.findEventByTitle(title);
+        if (event.isEmpty()) return fail("No event titled '" + title + "'");
+        event.get().writeJson(out);
+        out.writeByte('\n');
+        return OK;
+    }
+
+    private int create(String title, String date, String location, String type, int capacity) {
+        if (!app.isValidEvent(title)) return fail("Title cannot be empty");
+        if (!app.isValidDate(date)) return fail("Date must be in YYYY-MM-DD format");
+        app.createEvent(title, date, location, type, capacity);
+        return OK;
+    }
+
+    private int setCapacity(String title, int capacity) {
+        return app.setCapacity(title, capacity) ? OK : fail("No event titled '" + title + "'");
+    }
+
+    private static int capacity(String value) throws UsageException {
+        try {
+            int capacity = Integer.parseInt(value);
+            if (capacity >= 0) return capacity;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new UsageException("Capacity must be a non-negative integer: " + value);
+    }
+
+    private int delete(String title) {
+        return app.deleteEvent(title) ? OK : fail("No event titled '" + title + "'");
+    }
+
+    private int register(String title, String name, String email, Event.DedupPolicy policy) {
+        if (app.findEventByTitle(title).isEmpty()) return fail("No event titled '" + title + "'");
+        if (name.isBlank()) return fail("Name cannot be empty");
+        if (!app.isValidEmail(email)) return fail("Invalid email '" + email + "'");
+        return switch (app.registerAttendee(title, name, email, policy)) {
+            case REGISTERED -> OK;
+            case WAITLISTED -> {
+                System.err.println("'" + title + "' is full; " + email + " is on the waitlist");
+                yield OK;
+            }
+            case DUPLICATE -> fail(email + " is already registered for '" + title + "'");
+            case INVALID -> fail("Invalid attendee");
+            case NO_EVENT -> fail("No event titled '" + title + "'");
+        };
+    }
+
+    private int unregister(String email) {
+        int removed = app.unregisterEverywhere(email);
+        System.err.println("Removed " + removed + " registrations of " + email);
+        return OK;
+    }
+
+    private int importAttendees(String file, String format, Event.DedupPolicy policy) throws UsageException, IOException {
+        AttendeeImporter importer = new AttendeeImporter(app, policy);
+        AttendeeImporter.Report report;
+        if (format == null && !file.equals("-")) {
+            report = importer.importFile(file);
+        } else {
+            boolean csv = switch (format == null ? "jsonl" : format.toLowerCase(Locale.ROOT)) {
+                case "csv" -> true;
+                case "jsonl", "json" -> false;
+                default -> throw new UsageException("import: format must be csv or jsonl");
+            };
+            try (Reader reader = open(file)) {
+                report = csv ? importer.importCsv(reader) : importer.importJsonLines(reader);
+            }
+        }
+        report.errors().forEach(System.err::println);
+        if (report.failed() > report.errors().size()) {
+            System.err.println("... and " + (report.failed() - report.errors().size()) + " more");
+        }
+        System.err.println(report.summary());
+        return report.failed() == 0 ? OK : FAILED;
+    }
+
+    private int search(String query) throws UsageException, IOException {
+        if (EventTextIndex.Query.parse(query).isEmpty()) throw new UsageException("search: missing query");
+        return writeEvents(app.searchEvents(query));
+    }
+
+    private int export(String file) throws IOException {
+        if (file.equals("-")) {
+            writeArray(out);
+            return OK;
+        }
+        try (FileOutputStream stream = new FileOutputStream(file);
+             EventJsonWriter fileOut = new EventJsonWriter(stream.getChannel())) {
+            writeArray(fileOut);
+        }
+        return OK;
+    }
+
+    private void writeArray(EventJsonWriter target) throws IOException {
+        List<Event> events = app.getAllEvents();
+        target.writeAscii("[\n");
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).writeJson(target);
+            target.writeAscii(i < events.size() - 1 ? ",\n" : "\n");
+        }
+        target.writeAscii("]\n");
+    }
+
+    private int report() throws IOException {
+        Map<String, int[]> byType = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        long attendees = 0;
+        List<Event> events = app.getAllEvents();
+        for (Event event : events) {
+            int count = event.getAttendeeCount();
+            int[] totals = byType.computeIfAbsent(event.getType() == null ? "" : event.getType(), k -> new int[2]);
+            totals[0]++;
+            totals[1] += count;
+            attendees += count;
+        }
+        for (Map.Entry<String, int[]> entry : byType.entrySet()) {
+            out.writeByte('{');
+            out.writeAscii("\"type\":");
+            out.writeString(entry.getKey());
+            out.writeAscii(",\"events\":");
+            out.writeLong(entry.getValue()[0]);
+            out.writeAscii(",\"attendees\":");
+            out.writeLong(entry.getValue()[1]);
+            out.writeAscii("}\n");
+        }
+        out.writeAscii("{\"events\":");
+        out.writeLong(events.size());
+        out.writeAscii(",\"attendees\":");
+        out.writeLong(attendees);
+        out.writeAscii("}\n");
+        return OK;
+    }
+
+    // Blank lines and lines starting with '#' are skipped. A failing line is
+    // reported and the batch goes on; the status is the worst of all lines.
+    private int batch(String file) throws IOException {
+        int status = OK;
+        try (BufferedReader lines = new BufferedReader(open(file))) {
+            String line;
+            int number = 0;
+            while ((line = lines.readLine()) != null) {
+                number++;
+                if (line.isBlank() || line.strip().startsWith("#")) continue;
+                int lineStatus;
+                try {
+                    List<String> words = splitWords(line);
+                    if (words.get(0).equals("batch")) throw new UsageException("batch cannot be nested");
+                    lineStatus = execute(Command.parse(words));
+                } catch (UsageException e) {
+                    System.err.println("Line " + number + ": " + e.getMessage());
+                    lineStatus = USAGE;
+                }
+                if (lineStatus != OK) {
+                    if (lineStatus == FAILED) System.err.println("Line " + number + " failed");
+                    status = Math.max(status, lineStatus);
+                }
+                app.saveEvents();
+            }
+        }
+        return status;
+    }
+
+    // Whitespace-separated words; double quotes group words and a backslash
+    // inside quotes escapes the next character
+    static List<String> splitWords(String line) throws UsageException {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean quoted = false;
+        boolean inWord = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '\\' && i + 1 < line.length()) {
+                    word.append(line.charAt(++i));
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    word.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inWord = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inWord) words.add(word.toString());
+                word.setLength(0);
+                inWord = false;
+            } else {
+                word.append(c);
+                inWord = true;
+            }
+        }
+        if (quoted) throw new UsageException("Unterminated quote");
+        if (inWord) words.add(word.toString());
+        return words;
+    }
+
+    // One summary object per line, with an attendee count instead of the attendees
+    private int writeEvents(List<Event> events) throws IOException {
+        for (Event event : events) {
+            event.writeSummaryJson(out);
+            out.writeByte('\n');
+        }
+        return OK;
+    }
+
+    private static Reader open(String file) throws IOException {
+        InputStream in = file.equals("-") ? System.in : new FileInputStream(file);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private static Event.DedupPolicy policy(Command command) throws UsageException {
+        String policy = command.options().get("policy");
+        return policy == null ? Event.DedupPolicy.REJECT : parseEnum(Event.DedupPolicy.class, policy, "policy");
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String what) throws UsageException {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new UsageException("Unknown " + what + " '" + value + "', expected one of " + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static int fail(String message) {
+        System.err.println(message);
+        return FAILED;
+    }
+}
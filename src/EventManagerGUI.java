@@ -1,10 +1,18 @@
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.plaf.basic.BasicTabbedPaneUI;
 import javax.swing.table.JTableHeader;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class EventManagerGUI extends JFrame {
     private final EventManagerApp app;
@@ -18,16 +26,28 @@ public class EventManagerGUI extends JFrame {
     private final Color TABLE_ALT_ROW_COLOR = new Color(220, 255, 220); // Light green
     private final Color TAB_COLOR = new Color(144, 238, 144); // Light green tab color
     private final Color DIALOG_BACKGROUND = new Color(240, 255, 240); // Mint cream
+    private final Color WARNING_COLOR = new Color(192, 57, 43); // Brick red
     private final JTextArea outputArea;
     private final JTable eventTable;
     private final EventTableModel tableModel;
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JLabel statusLabel = new JLabel(" ");
+    // Controls that mutate or save data are disabled while a load is in flight
+    private final List<Component> editControls = new ArrayList<>();
+    private boolean exiting;
 
     public EventManagerGUI() {
         app = new EventManagerApp();
-        app.loadEvents();
 
         setTitle("Event Management System");
         setExtendedState(JFrame.MAXIMIZED_BOTH);
+        setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                exitApplication();
+            }
+        });
         setMinimumSize(new Dimension(800, 600));
         setLayout(new BorderLayout());
         getContentPane().setBackground(BACKGROUND_COLOR);
@@ -45,7 +65,7 @@ public class EventManagerGUI extends JFrame {
         scrollPane.setBorder(BorderFactory.createLineBorder(PRIMARY_COLOR, 2));
 
         // Create table with colorful styling
-        tableModel = new EventTableModel(app.getAllEvents());
+        tableModel = new EventTableModel(app);
         eventTable = new JTable(tableModel) {
             @Override
             public Component prepareRenderer(javax.swing.table.TableCellRenderer renderer, int row, int column) {
@@ -57,7 +77,8 @@ public class EventManagerGUI extends JFrame {
             }
         };
 
-        eventTable.setAutoCreateRowSorter(true);
+        TableRowSorter<EventTableModel> rowSorter = new TableRowSorter<>(tableModel);
+        eventTable.setRowSorter(rowSorter);
         eventTable.setBackground(TABLE_ROW_COLOR);
         eventTable.setForeground(Color.BLACK);
         eventTable.setSelectionBackground(PRIMARY_COLOR);
@@ -76,6 +97,46 @@ public class EventManagerGUI extends JFrame {
         JScrollPane tableScrollPane = new JScrollPane(eventTable);
         tableScrollPane.setBorder(BorderFactory.createLineBorder(PRIMARY_COLOR, 2));
 
+        // Search bar, filtering the table as you type
+        JTextField searchField = createStyledTextField();
+        searchField.setToolTipText("Title, location, type or attendee name/email");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                update();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                update();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                update();
+            }
+
+            private void update() {
+                EventTextIndex.Query query = EventTextIndex.Query.parse(searchField.getText(), true);
+                rowSorter.setRowFilter(query.isEmpty() ? null : new RowFilter<>() {
+                    @Override
+                    public boolean include(Entry<? extends EventTableModel, ? extends Integer> entry) {
+                        return app.matchesSearch(entry.getModel().getEventAt(entry.getIdentifier()), query);
+                    }
+                });
+            }
+        });
+
+        JPanel searchPanel = new JPanel(new BorderLayout(10, 0));
+        searchPanel.setBackground(BACKGROUND_COLOR);
+        searchPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        searchPanel.add(createStyledLabel("Search:"), BorderLayout.WEST);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+
+        JPanel tablePanel = new JPanel(new BorderLayout());
+        tablePanel.add(searchPanel, BorderLayout.NORTH);
+        tablePanel.add(tableScrollPane, BorderLayout.CENTER);
+
         // Create tabbed pane with green styling
         JTabbedPane tabbedPane = new JTabbedPane() {
             @Override
@@ -113,7 +174,7 @@ public class EventManagerGUI extends JFrame {
         tabbedPane.setBackground(TAB_COLOR);
         tabbedPane.setForeground(TEXT_COLOR);
         tabbedPane.setFont(new Font("SansSerif", Font.BOLD, 14));
-        tabbedPane.addTab("Table View", tableScrollPane);
+        tabbedPane.addTab("Table View", tablePanel);
         tabbedPane.addTab("Text View", scrollPane);
 
         // Create button panel with vibrant green buttons
@@ -127,14 +188,107 @@ public class EventManagerGUI extends JFrame {
             JButton button = createStyledButton(label);
             button.addActionListener(new ButtonClickListener());
             buttonPanel.add(button);
+            if (label.startsWith("Manage") || label.startsWith("Save")) editControls.add(button);
         }
 
+        // Status bar with load/save progress
+        JPanel statusPanel = new JPanel(new BorderLayout(10, 0));
+        statusPanel.setBackground(BACKGROUND_COLOR);
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(0, 15, 10, 15));
+        statusLabel.setForeground(PRIMARY_COLOR);
+        statusLabel.setFont(new Font("SansSerif", Font.PLAIN, 13));
+        progressBar.setForeground(PRIMARY_COLOR);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(progressBar, BorderLayout.EAST);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+        southPanel.add(statusPanel, BorderLayout.SOUTH);
+
         // Add components to frame
         add(tabbedPane, BorderLayout.CENTER);
-        add(buttonPanel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
 
-        // Load initial data
-        refreshEventTable();
+        // Load initial data in the background, streaming rows into the table
+        loadEventsInBackground();
+    }
+
+    private void loadEventsInBackground() {
+        setEditingEnabled(false);
+        showProgress("Loading events...");
+        app.beginLoad();
+
+        // Events are added and the journal replayed on the worker thread; the
+        // table model applies the resulting changes on this thread
+        SwingWorker<Void, String> worker = new SwingWorker<>() {
+            private final List<Event> batch = new ArrayList<>();
+            private int loadedCount;
+
+            @Override
+            protected Void doInBackground() throws Exception {
+                try {
+                    app.readEvents(event -> {
+                        batch.add(event);
+                        if (batch.size() == 1000) addBatch();
+                    }, this::setProgress);
+                } finally {
+                    // Events read before an error are kept, and the journal still applies
+                    addBatch();
+                    publish("Applying recent changes...");
+                    app.finishLoad();
+                }
+                return null;
+            }
+
+            private void addBatch() {
+                if (batch.isEmpty()) return;
+                app.addLoadedEvents(List.copyOf(batch));
+                loadedCount += batch.size();
+                batch.clear();
+                publish("Loading events... " + loadedCount);
+            }
+
+            @Override
+            protected void process(List<String> messages) {
+                if (isDone()) return; // done() has already shown the result
+                statusLabel.setText(messages.get(messages.size() - 1));
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    System.err.println("Error loading events: " + e.getCause().getMessage());
+                }
+                hideProgress("Loaded " + app.getAllEvents().size() + " events");
+                setEditingEnabled(true);
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) progressBar.setValue((Integer) e.getNewValue());
+        });
+        worker.execute();
+    }
+
+    private void showProgress(String message) {
+        statusLabel.setText(message);
+        progressBar.setValue(0);
+        progressBar.setIndeterminate(false);
+        progressBar.setVisible(true);
+    }
+
+    private void hideProgress(String message) {
+        statusLabel.setText(message);
+        progressBar.setVisible(false);
+    }
+
+    private void setEditingEnabled(boolean enabled) {
+        editControls.forEach(control -> control.setEnabled(enabled));
     }
 
     private void createMenuBar() {
@@ -146,9 +300,17 @@ public class EventManagerGUI extends JFrame {
         JMenu fileMenu = createStyledMenu("File");
         JMenuItem saveItem = createStyledMenuItem("Save Events");
         saveItem.addActionListener(e -> saveEvents());
+        editControls.add(saveItem);
+        JMenuItem importItem = createStyledMenuItem("Import Attendees...");
+        importItem.addActionListener(e -> importAttendees());
+        editControls.add(importItem);
+        JMenuItem browseItem = createStyledMenuItem("Browse Archive...");
+        browseItem.addActionListener(e -> browseArchiveDialog());
         JMenuItem exitItem = createStyledMenuItem("Exit");
-        exitItem.addActionListener(e -> System.exit(0));
+        exitItem.addActionListener(e -> exitApplication());
         fileMenu.add(saveItem);
+        fileMenu.add(importItem);
+        fileMenu.add(browseItem);
         fileMenu.addSeparator();
         fileMenu.add(exitItem);
 
@@ -158,8 +320,13 @@ public class EventManagerGUI extends JFrame {
         addEventItem.addActionListener(e -> manageEventsDialog());
         JMenuItem deleteEventItem = createStyledMenuItem("Delete Event");
         deleteEventItem.addActionListener(e -> deleteSelectedEvent());
+        JMenuItem findAttendeeItem = createStyledMenuItem("Find Attendee...");
+        findAttendeeItem.addActionListener(e -> findAttendeeDialog());
         editMenu.add(addEventItem);
         editMenu.add(deleteEventItem);
+        editMenu.addSeparator();
+        editMenu.add(findAttendeeItem);
+        editControls.add(editMenu);
 
         // Help menu
         JMenu helpMenu = createStyledMenu("Help");
@@ -214,13 +381,48 @@ public class EventManagerGUI extends JFrame {
         return button;
     }
 
-    private void refreshEventTable() {
-        tableModel.setEvents(app.getAllEvents());
+    private void saveEvents() {
+        setEditingEnabled(false);
+        showProgress("Saving events...");
+        progressBar.setIndeterminate(true);
+
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                app.saveEvents();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                hideProgress("Events saved");
+                setEditingEnabled(true);
+                JOptionPane.showMessageDialog(EventManagerGUI.this, "Events saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }.execute();
     }
 
-    private void saveEvents() {
-        app.saveEvents();
-        JOptionPane.showMessageDialog(this, "Events saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+    // Writes out buffered journal records and lets a running compaction
+    // finish before the process exits, which would otherwise cut both off
+    private void exitApplication() {
+        if (exiting) return;
+        exiting = true;
+        setEditingEnabled(false);
+        showProgress("Saving events...");
+        progressBar.setIndeterminate(true);
+
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                app.shutdown();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                System.exit(0);
+            }
+        }.execute();
     }
 
     private void showAboutDialog() {
@@ -276,7 +478,7 @@ public class EventManagerGUI extends JFrame {
     }
 
     private void createEventDialog() {
-        JPanel panel = new JPanel(new GridLayout(4, 2, 10, 10));
+        JPanel panel = new JPanel(new GridLayout(5, 2, 10, 10));
         panel.setBackground(DIALOG_BACKGROUND);
         panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
@@ -284,6 +486,7 @@ public class EventManagerGUI extends JFrame {
         JTextField dateField = createStyledTextField();
         JTextField locationField = createStyledTextField();
         JTextField typeField = createStyledTextField();
+        JTextField capacityField = createStyledTextField();
 
         panel.add(createStyledLabel("Title:"));
         panel.add(titleField);
@@ -293,6 +496,8 @@ public class EventManagerGUI extends JFrame {
         panel.add(locationField);
         panel.add(createStyledLabel("Type:"));
         panel.add(typeField);
+        panel.add(createStyledLabel("Capacity (blank for unlimited):"));
+        panel.add(capacityField);
 
         int result = JOptionPane.showConfirmDialog(this, panel, "Create New Event", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE, null);
 
@@ -307,8 +512,18 @@ public class EventManagerGUI extends JFrame {
                 return;
             }
 
-            app.createEvent(titleField.getText(), dateField.getText(), locationField.getText(), typeField.getText());
-            refreshEventTable();
+            int capacity;
+            try {
+                capacity = capacityField.getText().isBlank() ? 0 : Integer.parseInt(capacityField.getText().trim());
+            } catch (NumberFormatException e) {
+                capacity = -1;
+            }
+            if (capacity < 0) {
+                JOptionPane.showMessageDialog(this, "Capacity must be a whole number!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            app.createEvent(titleField.getText(), dateField.getText(), locationField.getText(), typeField.getText(), capacity);
             outputArea.setText(app.getEventDetailsDisplay());
         }
     }
@@ -333,13 +548,12 @@ public class EventManagerGUI extends JFrame {
         int selectedRow = eventTable.getSelectedRow();
         if (selectedRow >= 0) {
             int modelRow = eventTable.convertRowIndexToModel(selectedRow);
-            Event event = app.getAllEvents().get(modelRow);
+            Event event = tableModel.getEventAt(modelRow);
 
             int confirm = JOptionPane.showConfirmDialog(this, "Delete event: " + event.getTitle() + "?", "Confirm Deletion", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
 
             if (confirm == JOptionPane.YES_OPTION) {
                 app.deleteEvent(event.getTitle());
-                refreshEventTable();
                 outputArea.setText(app.getEventDetailsDisplay());
             }
         } else {
@@ -419,17 +633,44 @@ public class EventManagerGUI extends JFrame {
     }
 
     private void addAttendeeDialog(String eventTitle) {
-        JPanel panel = new JPanel(new GridLayout(2, 2, 10, 10));
+        JPanel panel = new JPanel(new GridLayout(3, 2, 10, 10));
         panel.setBackground(DIALOG_BACKGROUND);
         panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
         JTextField nameField = createStyledTextField();
         JTextField emailField = createStyledTextField();
+        JLabel duplicateWarning = createStyledLabel(" ");
+        duplicateWarning.setForeground(WARNING_COLOR);
 
         panel.add(createStyledLabel("Name:"));
         panel.add(nameField);
         panel.add(createStyledLabel("Email:"));
         panel.add(emailField);
+        panel.add(new JLabel());
+        panel.add(duplicateWarning);
+
+        // Membership is a hash lookup, so it is cheap to check on every keystroke
+        emailField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                update();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                update();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                update();
+            }
+
+            private void update() {
+                boolean registered = app.isAttendeeRegistered(eventTitle, emailField.getText());
+                duplicateWarning.setText(registered ? "Already registered" : " ");
+            }
+        });
 
         int result = JOptionPane.showConfirmDialog(this, panel, "Add Attendee to " + eventTitle, JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE, null);
 
@@ -439,23 +680,46 @@ public class EventManagerGUI extends JFrame {
                 return;
             }
 
-            boolean success = app.registerAttendee(eventTitle, nameField.getText(), emailField.getText());
+            Event.DedupPolicy policy = Event.DedupPolicy.REJECT;
+            if (app.isAttendeeRegistered(eventTitle, emailField.getText())) {
+                int choice = JOptionPane.showConfirmDialog(this, emailField.getText() + " is already registered for " + eventTitle + ".\nReplace the existing registration?",
+                        "Duplicate Attendee", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+                if (choice != JOptionPane.YES_OPTION) return;
+                policy = Event.DedupPolicy.REPLACE;
+            }
 
-            if (success) {
-                refreshEventTable();
+            Event.RegistrationOutcome outcome = app.registerAttendee(eventTitle, nameField.getText(), emailField.getText(), policy);
+
+            if (outcome == Event.RegistrationOutcome.WAITLISTED) {
+                JOptionPane.showMessageDialog(this, eventTitle + " is full.\n" + emailField.getText() + " was added to the waitlist.", "Waitlisted", JOptionPane.INFORMATION_MESSAGE);
+            }
+            if (outcome == Event.RegistrationOutcome.REGISTERED || outcome == Event.RegistrationOutcome.WAITLISTED) {
                 outputArea.setText(app.getEventDetailsDisplay());
             }
         }
     }
 
     private void removeAttendeeDialog(String eventTitle) {
-        List<Attendee> attendees = app.getEventAttendees(eventTitle);
+        Event event = app.findEventByTitle(eventTitle).orElse(null);
+        if (event == null) return;
+        // Seated attendees first, then the waitlist, read together so a promotion cannot list anyone twice
+        List<Attendee> attendees = new ArrayList<>();
+        int seated;
+        synchronized (event) {
+            attendees.addAll(event.getAttendees());
+            seated = attendees.size();
+            attendees.addAll(event.getWaitlist());
+        }
         if (attendees.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No attendees to remove.", "Information", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
 
-        String[] attendeeNames = attendees.stream().map(a -> a.getName() + " <" + a.getEmail() + ">").toArray(String[]::new);
+        String[] attendeeNames = new String[attendees.size()];
+        for (int i = 0; i < attendeeNames.length; i++) {
+            Attendee a = attendees.get(i);
+            attendeeNames[i] = a.getName() + " <" + a.getEmail() + ">" + (i < seated ? "" : " (waitlisted)");
+        }
 
         // Create styled combo box for attendee selection
         JComboBox<String> attendeeCombo = new JComboBox<>(attendeeNames);
@@ -470,15 +734,102 @@ public class EventManagerGUI extends JFrame {
         int result = JOptionPane.showConfirmDialog(this, panel, "Remove Attendee from " + eventTitle, JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE, null);
 
         if (result == JOptionPane.OK_OPTION) {
-            int index = attendeeCombo.getSelectedIndex();
-            boolean success = app.removeAttendee(eventTitle, index);
+            Attendee selected = attendees.get(attendeeCombo.getSelectedIndex());
+            boolean success = app.removeAttendee(eventTitle, selected.getId());
             if (success) {
-                refreshEventTable();
                 outputArea.setText(app.getEventDetailsDisplay());
             }
         }
     }
 
+    // Every event an email is registered for, with the option to remove it from all of them
+    private void findAttendeeDialog() {
+        JTextField emailField = createStyledTextField();
+        JPanel inputPanel = new JPanel(new BorderLayout(10, 10));
+        inputPanel.setBackground(DIALOG_BACKGROUND);
+        inputPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        inputPanel.add(createStyledLabel("Attendee email:"), BorderLayout.WEST);
+        inputPanel.add(emailField, BorderLayout.CENTER);
+
+        int result = JOptionPane.showConfirmDialog(this, inputPanel, "Find Attendee", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE, null);
+        if (result != JOptionPane.OK_OPTION) return;
+
+        String email = emailField.getText().trim();
+        List<Event> events = app.findEventsForAttendee(email);
+        if (events.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No registrations found for " + email + ".", "Information", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        String[] columnNames = {"Title", "Date", "Location", "Type"};
+        Object[][] data = events.stream().map(e -> new Object[]{e.getTitle(), e.getDate(), e.getLocation(), e.getType()}).toArray(Object[][]::new);
+
+        JTable eventsTable = new JTable(data, columnNames);
+        eventsTable.setBackground(TABLE_ROW_COLOR);
+        eventsTable.setForeground(Color.BLACK);
+        eventsTable.setSelectionBackground(PRIMARY_COLOR);
+        eventsTable.setSelectionForeground(TEXT_COLOR);
+        eventsTable.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        eventsTable.setRowHeight(25);
+
+        // Style table header
+        JTableHeader eventsHeader = eventsTable.getTableHeader();
+        eventsHeader.setBackground(TABLE_HEADER_COLOR);
+        eventsHeader.setForeground(TEXT_COLOR);
+        eventsHeader.setFont(new Font("SansSerif", Font.BOLD, 14));
+
+        JScrollPane scrollPane = new JScrollPane(eventsTable);
+        scrollPane.setBorder(BorderFactory.createLineBorder(PRIMARY_COLOR, 2));
+        scrollPane.setPreferredSize(new Dimension(600, 250));
+        eventsTable.setFillsViewportHeight(true);
+
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(DIALOG_BACKGROUND);
+        panel.add(createStyledLabel(email + " is registered for " + events.size() + (events.size() == 1 ? " event:" : " events:")), BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+
+        Object[] options = {"Unregister Everywhere", "Close"};
+        int choice = JOptionPane.showOptionDialog(this, panel, "Registrations for " + email, JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[1]);
+        if (choice != 0) return;
+
+        int confirm = JOptionPane.showConfirmDialog(this,
+                "Remove " + email + " from all " + events.size() + " events?\nThe saved event files are rewritten without it.",
+                "Confirm Unregister", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (confirm == JOptionPane.YES_OPTION) unregisterEverywhere(email);
+    }
+
+    // Saves and compacts afterwards, so the address is also gone from the files on disk
+    private void unregisterEverywhere(String email) {
+        setEditingEnabled(false);
+        showProgress("Unregistering " + email + "...");
+        progressBar.setIndeterminate(true);
+
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                int removed = app.unregisterEverywhere(email);
+                app.saveEvents();
+                app.compactEvents();
+                return removed;
+            }
+
+            @Override
+            protected void done() {
+                setEditingEnabled(true);
+                try {
+                    int removed = get();
+                    hideProgress("Removed " + removed + " registrations of " + email);
+                    outputArea.setText(app.getEventDetailsDisplay());
+                    JOptionPane.showMessageDialog(EventManagerGUI.this, "Removed " + removed + " registrations of " + email + ".", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException | ExecutionException e) {
+                    hideProgress("Unregister failed");
+                    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(EventManagerGUI.this, "Could not unregister " + email + ": " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
     private void styleComboBox(JComboBox<String> comboBox) {
         comboBox.setBackground(Color.WHITE);
         comboBox.setForeground(Color.BLACK);
@@ -599,6 +950,107 @@ public class EventManagerGUI extends JFrame {
         }
     }
 
+    private void importAttendees() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Attendees (CSV or JSON lines)");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        String filePath = chooser.getSelectedFile().getPath();
+
+        setEditingEnabled(false);
+        showProgress("Importing attendees...");
+        progressBar.setIndeterminate(true);
+
+        new SwingWorker<AttendeeImporter.Report, Void>() {
+            @Override
+            protected AttendeeImporter.Report doInBackground() throws IOException {
+                return new AttendeeImporter(app, Event.DedupPolicy.REJECT).importFile(filePath);
+            }
+
+            @Override
+            protected void done() {
+                setEditingEnabled(true);
+                try {
+                    AttendeeImporter.Report report = get();
+                    hideProgress(report.summary());
+                    outputArea.setText(app.getEventDetailsDisplay());
+                    showImportReport(report);
+                } catch (InterruptedException | ExecutionException e) {
+                    hideProgress("Import failed");
+                    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(EventManagerGUI.this, "Could not import attendees: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    private void showImportReport(AttendeeImporter.Report report) {
+        if (report.failed() == 0) {
+            JOptionPane.showMessageDialog(this, report.summary(), "Import Complete", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        StringBuilder text = new StringBuilder();
+        report.errors().forEach(error -> text.append(error).append('\n'));
+        if (report.failed() > report.errors().size()) {
+            text.append("... and ").append(report.failed() - report.errors().size()).append(" more\n");
+        }
+        JTextArea errorArea = new JTextArea(text.toString(), 15, 60);
+        errorArea.setEditable(false);
+        errorArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBackground(DIALOG_BACKGROUND);
+        panel.add(createStyledLabel(report.summary()), BorderLayout.NORTH);
+        panel.add(new JScrollPane(errorArea), BorderLayout.CENTER);
+        JOptionPane.showMessageDialog(this, panel, "Import Report", JOptionPane.WARNING_MESSAGE);
+    }
+
+    private void browseArchiveDialog() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Open Event Archive");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        PagedEventTableModel archiveModel;
+        try {
+            archiveModel = new PagedEventTableModel(chooser.getSelectedFile().getPath());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not open archive: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        JTable archiveTable = new JTable(archiveModel);
+        archiveTable.setBackground(TABLE_ROW_COLOR);
+        archiveTable.setForeground(Color.BLACK);
+        archiveTable.setSelectionBackground(PRIMARY_COLOR);
+        archiveTable.setSelectionForeground(TEXT_COLOR);
+        archiveTable.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        archiveTable.setRowHeight(25);
+
+        // Style table header
+        JTableHeader archiveHeader = archiveTable.getTableHeader();
+        archiveHeader.setBackground(TABLE_HEADER_COLOR);
+        archiveHeader.setForeground(TEXT_COLOR);
+        archiveHeader.setFont(new Font("SansSerif", Font.BOLD, 14));
+
+        JScrollPane scrollPane = new JScrollPane(archiveTable);
+        scrollPane.setBorder(BorderFactory.createLineBorder(PRIMARY_COLOR, 2));
+        archiveTable.setFillsViewportHeight(true);
+
+        JDialog dialog = new JDialog(this, "Archive: " + chooser.getSelectedFile().getName() + " (" + archiveModel.getRowCount() + " events)", false);
+        dialog.setLayout(new BorderLayout());
+        dialog.add(scrollPane, BorderLayout.CENTER);
+        dialog.setSize(900, 600);
+        dialog.setLocationRelativeTo(this);
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                archiveModel.close();
+            }
+        });
+        dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dialog.setVisible(true);
+    }
+
     private boolean checkAdminAccess() {
         return true;
     }
@@ -614,7 +1066,7 @@ public class EventManagerGUI extends JFrame {
                 case "View Event Attendees" -> viewAttendeesDialog();
                 case "Filter by Type" -> filterByTypeDialog();
                 case "Save Events" -> saveEvents();
-                case "Exit" -> System.exit(0);
+                case "Exit" -> exitApplication();
             }
         }
     }
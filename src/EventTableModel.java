@@ -1,18 +1,79 @@
+import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
-public class EventTableModel extends AbstractTableModel {
-    private List<Event> events;
-    private final String[] columnNames = {"Title", "Date", "Location", "Type", "Attendees"};
+public class EventTableModel extends AbstractTableModel implements EventManagerApp.ChangeListener {
+    private final List<Event> events;
+    // Row of each event, for updates. Entries below firstStaleRow are current;
+    // rows from there on moved or were added and are renumbered on the next lookup.
+    private final Map<Event, Integer> rows = new IdentityHashMap<>();
+    private int firstStaleRow;
+    static final String[] COLUMN_NAMES = {"Title", "Date", "Location", "Type", "Attendees"};
 
     public EventTableModel(List<Event> events) {
         this.events = new ArrayList<>(events);
     }
 
-    public void setEvents(List<Event> events) {
-        this.events = new ArrayList<>(events);
-        fireTableDataChanged();
+    // Live model that mirrors the app's event list row by row. Changes may
+    // come from any thread and are applied in order on the event dispatch thread.
+    public EventTableModel(EventManagerApp app) {
+        this.events = new ArrayList<>();
+        this.events.addAll(app.addChangeListener(this));
+    }
+
+    public Event getEventAt(int rowIndex) {
+        return events.get(rowIndex);
+    }
+
+    @Override
+    public void eventsAdded(int firstIndex, List<Event> added) {
+        SwingUtilities.invokeLater(() -> {
+            events.addAll(firstIndex, added);
+            firstStaleRow = Math.min(firstStaleRow, firstIndex);
+            fireTableRowsInserted(firstIndex, firstIndex + added.size() - 1);
+        });
+    }
+
+    @Override
+    public void eventRemoved(int index, Event event) {
+        SwingUtilities.invokeLater(() -> {
+            rows.remove(events.remove(index));
+            firstStaleRow = Math.min(firstStaleRow, index);
+            fireTableRowsDeleted(index, index);
+        });
+    }
+
+    @Override
+    public void eventUpdated(Event event) {
+        SwingUtilities.invokeLater(() -> {
+            int row = rowOf(event);
+            if (row >= 0) fireTableRowsUpdated(row, row);
+        });
+    }
+
+    private int rowOf(Event event) {
+        Integer row = rows.get(event);
+        if (row != null && row < firstStaleRow) return row;
+        for (int i = firstStaleRow; i < events.size(); i++) {
+            rows.put(events.get(i), i);
+        }
+        firstStaleRow = events.size();
+        row = rows.get(event);
+        return row == null ? -1 : row;
+    }
+
+    @Override
+    public void eventsCleared() {
+        SwingUtilities.invokeLater(() -> {
+            events.clear();
+            rows.clear();
+            firstStaleRow = 0;
+            fireTableDataChanged();
+        });
     }
 
     @Override
@@ -22,24 +83,42 @@ public class EventTableModel extends AbstractTableModel {
 
     @Override
     public int getColumnCount() {
-        return columnNames.length;
+        return COLUMN_NAMES.length;
     }
 
     @Override
     public String getColumnName(int column) {
-        return columnNames[column];
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return columnClass(columnIndex);
     }
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        Event event = events.get(rowIndex);
+        return columnValue(events.get(rowIndex), columnIndex);
+    }
+
+    // Typed so the row sorter orders dates chronologically and counts numerically
+    static Class<?> columnClass(int columnIndex) {
+        return switch (columnIndex) {
+            case 1 -> LocalDate.class;
+            case 4 -> Integer.class;
+            default -> String.class;
+        };
+    }
+
+    // A date that does not parse is null, which the sorter places first
+    static Object columnValue(Event event, int columnIndex) {
         return switch (columnIndex) {
             case 0 -> event.getTitle();
-            case 1 -> event.getDate();
+            case 1 -> event.getLocalDate();
             case 2 -> event.getLocation();
             case 3 -> event.getType();
-            case 4 -> event.getAttendees().size();
+            case 4 -> event.getAttendeeCount();
             default -> null;
         };
     }
-}
\ No newline at end of file
+}
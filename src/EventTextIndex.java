@@ -0,0 +1,602 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Full-text inverted index over event titles, locations and types and
+ * attendee names and emails. Every event and every attendee is a document
+ * with an int id. Text is split into lowercase alphanumeric tokens, and each
+ * token keeps a posting list of the documents containing it as a plain int
+ * array. Tokens are kept sorted, so the tokens starting with a prefix are one
+ * contiguous range of keys.
+ *
+ * Removed documents are only marked dead and are filtered out of query
+ * results. Once a quarter of the ids are dead they are dropped from the
+ * postings and the survivors renumbered, so removing an attendee never scans
+ * the postings of common tokens such as "com".
+ *
+ * The index never calls into an Event while holding its own monitor, so it
+ * can be updated by threads that hold an event's lock.
+ */
+final class EventTextIndex {
+    /**
+     * A parsed search. Words must all match, "OR" separates alternatives and
+     * binds loosest, and a word ending in '*' also matches tokens it
+     * prefixes: {@code alice* berlin OR paris} is (alice* AND berlin) OR paris.
+     */
+    record Query(List<List<Term>> clauses) {
+        static Query parse(String text) {
+            return parse(text, false);
+        }
+
+        // With prefixWords every word matches as a prefix, for as-you-type search
+        static Query parse(String text, boolean prefixWords) {
+            List<List<Term>> clauses = new ArrayList<>();
+            List<Term> clause = new ArrayList<>();
+            for (String word : text == null ? new String[0] : text.trim().split("\\s+")) {
+                if (word.equals("OR")) {
+                    if (!clause.isEmpty()) clauses.add(List.copyOf(clause));
+                    clause.clear();
+                } else if (!word.equals("AND")) {
+                    List<String> tokens = new ArrayList<>();
+                    addTokens(tokens, word);
+                    if (!tokens.isEmpty()) clause.add(new Term(List.copyOf(tokens), prefixWords || word.endsWith("*")));
+                }
+            }
+            if (!clause.isEmpty()) clauses.add(List.copyOf(clause));
+            return new Query(List.copyOf(clauses));
+        }
+
+        boolean isEmpty() {
+            return clauses.isEmpty();
+        }
+    }
+
+    // One query word. Its tokens must all occur in the same document, so
+    // alice.johnson@example.com only matches that attendee; with prefix set
+    // the last token matches as a prefix.
+    record Term(List<String> tokens, boolean prefix) {
+    }
+
+    record Match(Event event, long attendeeId) {
+    }
+
+    // Ascending document ids: a new document always gets the highest id so
+    // far, and purging renumbers in order. Dead ids stay until a purge.
+    private static final class Posting {
+        int[] docs;
+        int size;
+
+        Posting(int capacity) {
+            docs = new int[capacity];
+        }
+
+        void add(int doc) {
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            docs[size++] = doc;
+        }
+
+        boolean contains(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+        }
+    }
+
+    // An event's documents: its own first, then one per attendee
+    private static final class EventDocs {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            docs[size++] = doc;
+        }
+    }
+
+    private static final int MIN_DEAD_TO_PURGE = 1024;
+
+    private final NavigableMap<String, Posting> postings = new TreeMap<>();
+    private final Map<Event, EventDocs> docsByEvent = new IdentityHashMap<>();
+    // Indexed by addLazily and not yet decoded; the index cannot be saved until they are
+    private final Set<Event> awaitingAttendees = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Event[] owners = new Event[1024];      // the event each document belongs to
+    private int[] eventDocs = new int[1024];       // the id of that event's own document
+    private long[] attendeeIds = new long[1024];   // 0 for an event's own document
+    private final BitSet live = new BitSet();
+    private int docCount;
+    private int deadCount;
+    private long version;
+
+    // Matches of the last query, reused by matches() until the index changes
+    private Query cachedQuery;
+    private long cachedVersion = -1;
+    private BitSet cachedMatches;
+
+    void add(Event event, List<Attendee> attendees) {
+        List<String> eventTokens = tokenize(event);
+        List<List<String>> attendeeTokens = tokenize(attendees);
+        synchronized (this) {
+            if (docsByEvent.containsKey(event)) return;
+            EventDocs docs = new EventDocs();
+            int eventDoc = docCount;
+            docs.add(addDoc(event, eventDoc, 0, eventTokens));
+            for (int i = 0; i < attendees.size(); i++) {
+                docs.add(addDoc(event, eventDoc, attendees.get(i).getId(), attendeeTokens.get(i)));
+            }
+            docsByEvent.put(event, docs);
+            version++;
+        }
+    }
+
+    // Indexes the event itself now and its attendees once the event decodes
+    // them, so rebuilding the index does not decode a mapped file up front
+    void addLazily(Event event) {
+        synchronized (this) {
+            if (docsByEvent.containsKey(event)) return;
+            awaitingAttendees.add(event);
+        }
+        add(event, List.of());
+        event.whenAttendeesDecoded(attendees -> {
+            attendeesChanged(event, attendees, List.of());
+            synchronized (this) {
+                awaitingAttendees.remove(event);
+            }
+        });
+    }
+
+    void remove(Event event) {
+        synchronized (this) {
+            awaitingAttendees.remove(event);
+            EventDocs docs = docsByEvent.remove(event);
+            if (docs == null) return;
+            for (int i = 0; i < docs.size; i++) {
+                kill(docs.docs[i]);
+            }
+            version++;
+            purgeIfSparse();
+        }
+    }
+
+    // Applies one change to an event's attendees. A replaced attendee is
+    // listed both as removed (by id) and as added.
+    void attendeesChanged(Event event, List<Attendee> added, Collection<Long> removedIds) {
+        List<List<String>> addedTokens = tokenize(added);
+        synchronized (this) {
+            EventDocs docs = docsByEvent.get(event);
+            if (docs == null) return;
+            if (!removedIds.isEmpty()) {
+                Set<Long> removed = new HashSet<>(removedIds);
+                int kept = 1;
+                for (int i = 1; i < docs.size; i++) {
+                    int doc = docs.docs[i];
+                    if (removed.contains(attendeeIds[doc])) {
+                        kill(doc);
+                    } else {
+                        docs.docs[kept++] = doc;
+                    }
+                }
+                docs.size = kept;
+            }
+            int eventDoc = docs.docs[0];
+            for (int i = 0; i < added.size(); i++) {
+                docs.add(addDoc(event, eventDoc, added.get(i).getId(), addedTokens.get(i)));
+            }
+            version++;
+            purgeIfSparse();
+        }
+    }
+
+    synchronized void clear() {
+        postings.clear();
+        docsByEvent.clear();
+        awaitingAttendees.clear();
+        Arrays.fill(owners, 0, docCount, null);
+        live.clear();
+        docCount = 0;
+        deadCount = 0;
+        version++;
+    }
+
+    // Events whose text as a whole matches: each word may match the event
+    // itself or any of its attendees. In index order, which is the load order
+    // followed by later additions.
+    synchronized List<Event> searchEvents(Query query) {
+        BitSet matches = matchingEvents(query);
+        List<Event> result = new ArrayList<>(matches.cardinality());
+        for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+            result.add(owners[doc]);
+        }
+        return result;
+    }
+
+    // Attendees whose name and email together match, with their events
+    synchronized List<Match> searchAttendees(Query query) {
+        BitSet matches = new BitSet(docCount);
+        for (List<Term> clause : query.clauses()) {
+            BitSet clauseMatches = null;
+            for (Term term : clause) {
+                BitSet termMatches = matchingDocs(term);
+                if (clauseMatches == null) {
+                    clauseMatches = termMatches;
+                } else {
+                    clauseMatches.and(termMatches);
+                }
+                if (clauseMatches.isEmpty()) break;
+            }
+            matches.or(clauseMatches);
+        }
+        List<Match> result = new ArrayList<>();
+        for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+            if (attendeeIds[doc] != 0) result.add(new Match(owners[doc], attendeeIds[doc]));
+        }
+        return result;
+    }
+
+    // Same as searchEvents(query).contains(event), for filtering table rows one at a time
+    synchronized boolean matches(Event event, Query query) {
+        if (!query.equals(cachedQuery) || version != cachedVersion) {
+            cachedMatches = matchingEvents(query);
+            cachedQuery = query;
+            cachedVersion = version;
+        }
+        EventDocs docs = docsByEvent.get(event);
+        return docs != null && cachedMatches.get(docs.docs[0]);
+    }
+
+    // Event document ids
+    private BitSet matchingEvents(Query query) {
+        BitSet matches = new BitSet(docCount);
+        for (List<Term> clause : query.clauses()) {
+            BitSet clauseMatches = null;
+            for (Term term : clause) {
+                BitSet termMatches = toEventDocs(matchingDocs(term));
+                if (clauseMatches == null) {
+                    clauseMatches = termMatches;
+                } else {
+                    clauseMatches.and(termMatches);
+                }
+                if (clauseMatches.isEmpty()) break;
+            }
+            matches.or(clauseMatches);
+        }
+        return matches;
+    }
+
+    // Tokens are intersected rarest first. Once few candidates are left they
+    // are looked up in the postings of the remaining tokens by binary search,
+    // rather than walking postings as long as the one for "com".
+    private BitSet matchingDocs(Term term) {
+        List<String> tokens = term.tokens();
+        List<Collection<Posting>> matched = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            matched.add(term.prefix() && i == tokens.size() - 1
+                    ? postings.subMap(token, true, token + Character.MAX_VALUE, false).values()
+                    : postings.subMap(token, true, token, true).values());
+        }
+        matched.sort(Comparator.comparingLong(EventTextIndex::totalSize));
+
+        BitSet matches = union(matched.get(0));
+        matches.and(live);
+        for (int i = 1; i < matched.size() && !matches.isEmpty(); i++) {
+            Collection<Posting> tokenPostings = matched.get(i);
+            if (matches.cardinality() * 32L < totalSize(tokenPostings)) {
+                for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                    if (!containsDoc(tokenPostings, doc)) matches.clear(doc);
+                }
+            } else {
+                matches.and(union(tokenPostings));
+            }
+        }
+        return matches;
+    }
+
+    private BitSet union(Collection<Posting> tokenPostings) {
+        BitSet docs = new BitSet(docCount);
+        for (Posting posting : tokenPostings) {
+            for (int i = 0; i < posting.size; i++) {
+                docs.set(posting.docs[i]);
+            }
+        }
+        return docs;
+    }
+
+    private static boolean containsDoc(Collection<Posting> tokenPostings, int doc) {
+        for (Posting posting : tokenPostings) {
+            if (posting.contains(doc)) return true;
+        }
+        return false;
+    }
+
+    private static long totalSize(Collection<Posting> tokenPostings) {
+        long size = 0;
+        for (Posting posting : tokenPostings) {
+            size += posting.size;
+        }
+        return size;
+    }
+
+    private BitSet toEventDocs(BitSet docs) {
+        BitSet events = new BitSet(docCount);
+        for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+            events.set(eventDocs[doc]);
+        }
+        return events;
+    }
+
+    private int addDoc(Event owner, int eventDoc, long attendeeId, List<String> tokens) {
+        int doc = docCount++;
+        if (doc == owners.length) {
+            int capacity = doc * 2;
+            owners = Arrays.copyOf(owners, capacity);
+            eventDocs = Arrays.copyOf(eventDocs, capacity);
+            attendeeIds = Arrays.copyOf(attendeeIds, capacity);
+        }
+        owners[doc] = owner;
+        eventDocs[doc] = eventDoc;
+        attendeeIds[doc] = attendeeId;
+        live.set(doc);
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, t -> new Posting(1)).add(doc);
+        }
+        return doc;
+    }
+
+    private void kill(int doc) {
+        live.clear(doc);
+        owners[doc] = null;
+        deadCount++;
+    }
+
+    // Drops dead ids from the postings and renumbers the live documents densely
+    private void purgeIfSparse() {
+        if (deadCount < MIN_DEAD_TO_PURGE || deadCount * 4L < docCount) return;
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (live.get(doc)) {
+                remap[doc] = next;
+                owners[next] = owners[doc];
+                eventDocs[next] = remap[eventDocs[doc]]; // an event's own document comes first
+                attendeeIds[next] = attendeeIds[doc];
+                next++;
+            } else {
+                remap[doc] = -1;
+            }
+        }
+        for (Iterator<Posting> it = postings.values().iterator(); it.hasNext(); ) {
+            Posting posting = it.next();
+            int size = 0;
+            for (int i = 0; i < posting.size; i++) {
+                int doc = remap[posting.docs[i]];
+                if (doc >= 0) posting.docs[size++] = doc;
+            }
+            posting.size = size;
+            if (size == 0) it.remove();
+        }
+        for (EventDocs docs : docsByEvent.values()) {
+            for (int i = 0; i < docs.size; i++) {
+                docs.docs[i] = remap[docs.docs[i]];
+            }
+        }
+        Arrays.fill(owners, next, docCount, null);
+        live.clear();
+        live.set(0, next);
+        docCount = next;
+        deadCount = 0;
+    }
+
+    // Persistence. The caller holds the app's write lock, so events are not
+    // changing; export returns null if some event is not indexed, or its
+    // attendees are not yet.
+    synchronized Image export(List<Event> events) {
+        if (!awaitingAttendees.isEmpty()) return null;
+        int[] remap = new int[docCount];
+        Arrays.fill(remap, -1);
+        int[] titleHashes = new int[events.size()];
+        int[] docsPerEvent = new int[events.size()];
+        long[] ids = new long[docCount - deadCount];
+        int next = 0;
+        for (int i = 0; i < events.size(); i++) {
+            EventDocs docs = docsByEvent.get(events.get(i));
+            if (docs == null) return null;
+            titleHashes[i] = Objects.hashCode(events.get(i).getTitle());
+            docsPerEvent[i] = docs.size;
+            for (int j = 0; j < docs.size; j++) {
+                ids[next] = attendeeIds[docs.docs[j]];
+                remap[docs.docs[j]] = next++;
+            }
+        }
+        List<String> tokens = new ArrayList<>(postings.size());
+        List<int[]> tokenDocs = new ArrayList<>(postings.size());
+        postings.forEach((token, posting) -> {
+            int[] docs = new int[posting.size];
+            int size = 0;
+            for (int i = 0; i < posting.size; i++) {
+                int doc = remap[posting.docs[i]];
+                if (doc >= 0) docs[size++] = doc;
+            }
+            if (size == 0) return;
+            docs = Arrays.copyOf(docs, size);
+            Arrays.sort(docs);
+            tokens.add(token);
+            tokenDocs.add(docs);
+        });
+        return new Image(titleHashes, docsPerEvent, Arrays.copyOf(ids, next), tokens.toArray(new String[0]), tokenDocs.toArray(new int[0][]));
+    }
+
+    // Replaces the contents with a saved image of the same events; returns
+    // false, leaving the index empty, if the image does not match them
+    synchronized boolean restore(Image image, List<Event> events) {
+        clear();
+        if (image.titleHashes.length != events.size()) return false;
+        for (int i = 0; i < events.size(); i++) {
+            if (image.titleHashes[i] != Objects.hashCode(events.get(i).getTitle())) return false;
+        }
+        int count = image.attendeeIds.length;
+        owners = new Event[Math.max(count, 1024)];
+        eventDocs = new int[owners.length];
+        attendeeIds = Arrays.copyOf(image.attendeeIds, owners.length);
+        int doc = 0;
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            EventDocs docs = new EventDocs();
+            docs.docs = new int[Math.max(image.docsPerEvent[i], 4)];
+            int eventDoc = doc;
+            for (int j = 0; j < image.docsPerEvent[i]; j++, doc++) {
+                owners[doc] = event;
+                eventDocs[doc] = eventDoc;
+                docs.add(doc);
+            }
+            docsByEvent.put(event, docs);
+        }
+        for (int i = 0; i < image.tokens.length; i++) {
+            Posting posting = new Posting(0);
+            posting.docs = image.postings[i];
+            posting.size = posting.docs.length;
+            postings.put(image.tokens[i], posting);
+        }
+        live.set(0, count);
+        docCount = count;
+        return true;
+    }
+
+    /**
+     * The index renumbered for saving: each event's documents are
+     * consecutive, in event order, and postings are sorted.
+     *
+     * Layout (big-endian):
+     *   int magic, int version, int eventCount, int docCount
+     *   per event: int titleHash, int docs, docs x long attendeeId (0 for the event itself)
+     *   int tokenCount, per token: string token, int size, size x int doc
+     * Strings are an int byte length followed by UTF-8 bytes.
+     */
+    static final class Image {
+        private static final int MAGIC = 0x45564958; // "EVIX"
+        private static final int VERSION = 1;
+
+        private final int[] titleHashes;
+        private final int[] docsPerEvent;
+        private final long[] attendeeIds;
+        private final String[] tokens;
+        private final int[][] postings;
+
+        private Image(int[] titleHashes, int[] docsPerEvent, long[] attendeeIds, String[] tokens, int[][] postings) {
+            this.titleHashes = titleHashes;
+            this.docsPerEvent = docsPerEvent;
+            this.attendeeIds = attendeeIds;
+            this.tokens = tokens;
+            this.postings = postings;
+        }
+
+        void write(Path path) throws IOException {
+            Path tempPath = Path.of(path + ".tmp");
+            try (FileOutputStream file = new FileOutputStream(tempPath.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(titleHashes.length);
+                out.writeInt(attendeeIds.length);
+                int doc = 0;
+                for (int i = 0; i < titleHashes.length; i++) {
+                    out.writeInt(titleHashes[i]);
+                    out.writeInt(docsPerEvent[i]);
+                    for (int j = 0; j < docsPerEvent[i]; j++) {
+                        out.writeLong(attendeeIds[doc++]);
+                    }
+                }
+                out.writeInt(tokens.length);
+                for (int i = 0; i < tokens.length; i++) {
+                    byte[] bytes = tokens[i].getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                    out.writeInt(postings[i].length);
+                    for (int id : postings[i]) {
+                        out.writeInt(id);
+                    }
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        static Image read(Path path) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+                if (in.readInt() != MAGIC) throw new IOException("Not a search index: " + path);
+                int version = in.readInt();
+                if (version != VERSION) throw new IOException("Unsupported search index version " + version);
+
+                int events = in.readInt();
+                int docs = in.readInt();
+                if (events < 0 || docs < events) throw new IOException("Corrupt search index: bad counts");
+                int[] titleHashes = new int[events];
+                int[] docsPerEvent = new int[events];
+                long[] attendeeIds = new long[docs];
+                int doc = 0;
+                for (int i = 0; i < events; i++) {
+                    titleHashes[i] = in.readInt();
+                    docsPerEvent[i] = in.readInt();
+                    if (docsPerEvent[i] < 1 || docsPerEvent[i] > docs - doc) throw new IOException("Corrupt search index: bad document count");
+                    for (int j = 0; j < docsPerEvent[i]; j++) {
+                        attendeeIds[doc++] = in.readLong();
+                    }
+                }
+                if (doc != docs) throw new IOException("Corrupt search index: document count mismatch");
+
+                String[] tokens = new String[in.readInt()];
+                int[][] postings = new int[tokens.length][];
+                for (int i = 0; i < tokens.length; i++) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    tokens[i] = new String(bytes, StandardCharsets.UTF_8);
+                    postings[i] = new int[in.readInt()];
+                    for (int j = 0; j < postings[i].length; j++) {
+                        int id = in.readInt();
+                        if (id < 0 || id >= docs) throw new IOException("Corrupt search index: document id out of range");
+                        postings[i][j] = id;
+                    }
+                }
+                return new Image(titleHashes, docsPerEvent, attendeeIds, tokens, postings);
+            }
+        }
+    }
+
+    private static List<String> tokenize(Event event) {
+        List<String> tokens = new ArrayList<>();
+        addTokens(tokens, event.getTitle());
+        addTokens(tokens, event.getLocation());
+        addTokens(tokens, event.getType());
+        return tokens;
+    }
+
+    private static List<List<String>> tokenize(List<Attendee> attendees) {
+        List<List<String>> tokens = new ArrayList<>(attendees.size());
+        for (Attendee attendee : attendees) {
+            List<String> attendeeTokens = new ArrayList<>();
+            addTokens(attendeeTokens, attendee.getName());
+            addTokens(attendeeTokens, attendee.getEmail());
+            tokens.add(attendeeTokens);
+        }
+        return tokens;
+    }
+
+    // Lowercase alphanumeric runs; a document lists each token once, and a
+    // handful of tokens is cheaper to check in a list than to hash
+    private static void addTokens(List<String> tokens, String text) {
+        if (text == null) return;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!tokens.contains(token)) tokens.add(token);
+                start = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Single-pass pull tokenizer over a character stream. Only one buffer of
+ * input is held at a time, so documents of any size can be walked without
+ * materializing them as a String. Input is strict JSON: exactly one comma
+ * between members and elements, and one value per document unless the
+ * tokenizer is reading a slice of an array's elements.
+ */
+final class JsonTokenizer implements Closeable {
+    enum Token {BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT}
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int DANGLING_NAME = 6;
+
+    private final Reader reader;
+    private final boolean elements;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private long offset;
+
+    private int[] stack = new int[16];
+    private int depth = 1;
+
+    private Token peeked;
+    private final StringBuilder text = new StringBuilder();
+
+    JsonTokenizer(Reader reader) {
+        this(reader, false);
+    }
+
+    // With elements set, the input is a run of an array's elements rather than
+    // one document: top-level values are separated by commas, and a comma may
+    // come before the first one. The parallel loader reads its chunks this way.
+    JsonTokenizer(Reader reader, boolean elements) {
+        this.reader = reader;
+        this.elements = elements;
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    Token peek() throws IOException {
+        if (peeked != null) return peeked;
+
+        int context = stack[depth - 1];
+        int c = nextNonWhitespace();
+
+        switch (context) {
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                if (c == '}') return peeked = Token.END_OBJECT;
+                if (context == NONEMPTY_OBJECT) {
+                    if (c != ',') throw syntaxError("Expected ',' or '}'");
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') throw syntaxError("Expected name");
+                readString();
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                if (c != ':') throw syntaxError("Expected ':'");
+                c = nextNonWhitespace();
+                stack[depth - 1] = NONEMPTY_OBJECT;
+            }
+            case EMPTY_ARRAY -> {
+                if (c == ']') return peeked = Token.END_ARRAY;
+                stack[depth - 1] = NONEMPTY_ARRAY;
+            }
+            case NONEMPTY_ARRAY -> {
+                if (c == ']') return peeked = Token.END_ARRAY;
+                if (c != ',') throw syntaxError("Expected ',' or ']'");
+                c = nextNonWhitespace();
+            }
+            case EMPTY_DOCUMENT -> {
+                if (elements && c == ',') c = nextNonWhitespace();
+                if (c == -1) return peeked = Token.END_DOCUMENT;
+                stack[0] = NONEMPTY_DOCUMENT;
+            }
+            default -> {
+                if (c == -1) return peeked = Token.END_DOCUMENT;
+                if (!elements) throw syntaxError("Expected end of input");
+                if (c != ',') throw syntaxError("Expected ','");
+                c = nextNonWhitespace();
+            }
+        }
+
+        if (c == -1) throw syntaxError("Unexpected end of input");
+        return peeked = readValueStart(c);
+    }
+
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    // Fails if anything but whitespace follows the value just read
+    void endDocument() throws IOException {
+        expect(Token.END_DOCUMENT);
+    }
+
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        return text.toString();
+    }
+
+    String nextString() throws IOException {
+        expect(Token.STRING);
+        return text.toString();
+    }
+
+    long nextLong() throws IOException {
+        expect(Token.NUMBER);
+        try {
+            return Long.parseLong(text, 0, text.length(), 10);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Expected integer but was " + text);
+        }
+    }
+
+    boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return text.charAt(0) == 't';
+    }
+
+    void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    void skipValue() throws IOException {
+        int level = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> { beginObject(); level++; }
+                case BEGIN_ARRAY -> { beginArray(); level++; }
+                case END_OBJECT -> { endObject(); level--; }
+                case END_ARRAY -> { endArray(); level--; }
+                case END_DOCUMENT -> throw syntaxError("Unexpected end of input");
+                default -> peeked = null;
+            }
+        } while (level > 0);
+    }
+
+    /** Number of characters consumed from the underlying reader so far. */
+    long position() {
+        return offset + pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) throw syntaxError("Expected " + expected + " but was " + token);
+        peeked = null;
+    }
+
+    private void push(int context) {
+        if (depth == stack.length) {
+            int[] grown = new int[depth * 2];
+            System.arraycopy(stack, 0, grown, 0, depth);
+            stack = grown;
+        }
+        stack[depth++] = context;
+    }
+
+    private Token readValueStart(int c) throws IOException {
+        switch (c) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '"':
+                readString();
+                return Token.STRING;
+            case 't':
+                readLiteral("true");
+                return Token.BOOLEAN;
+            case 'f':
+                readLiteral("false");
+                return Token.BOOLEAN;
+            case 'n':
+                readLiteral("null");
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber(c);
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"' || c == '\\') break;
+                pos++;
+            }
+            text.append(buffer, start, pos - start);
+
+            if (pos == limit) {
+                if (!fill()) throw syntaxError("Unterminated string");
+                continue;
+            }
+
+            char c = buffer[pos++];
+            if (c == '"') return;
+            text.append(readEscape());
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) throw syntaxError("Invalid unicode escape");
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    private void readNumber(int first) throws IOException {
+        text.setLength(0);
+        text.append((char) first);
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                text.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 1; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) throw syntaxError("Expected " + literal);
+        }
+        text.setLength(0);
+        text.append(literal);
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+        }
+        return -1;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) throw syntaxError("Unexpected end of input");
+        return buffer[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        pos = 0;
+        limit = 0;
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) return false;
+        limit = n;
+        return true;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at character " + position());
+    }
+}
@@ -0,0 +1,426 @@
+import java.io.CharArrayReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Loads events from a memory-mapped events file. Only the scalar fields of
+ * each event and its waitlist, which is short, are decoded up front; the byte
+ * range of its attendee array is recorded and decoded the first time the
+ * attendees are requested. Dates, locations and types go through a pool
+ * shared by every event of the load.
+ *
+ * A single mapping cannot exceed 2 GB, so the file is mapped in 1 GB windows
+ * addressed by long offsets. Closing unmaps it at once instead of whenever the
+ * buffers are collected, which matters on Windows, where a mapped file cannot
+ * be replaced; events still holding undecoded attendees must not outlive it.
+ */
+final class MappedEventLoader implements Closeable {
+    private static final int WINDOW_SHIFT = 30;
+    private static final long WINDOW_MASK = (1L << WINDOW_SHIFT) - 1;
+    // Ranges up to this size are decoded in one go; longer ones are streamed
+    private static final int DECODE_AT_ONCE = 1 << 16;
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Unavailable: closed windows are unmapped when they are collected
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    // The windows of one file, shared by every cursor over it
+    private static final class Mapping {
+        final MappedByteBuffer[] windows;
+        final long size;
+        volatile boolean closed;
+
+        Mapping(MappedByteBuffer[] windows, long size) {
+            this.windows = windows;
+            this.size = size;
+        }
+    }
+
+    private final Mapping mapping;
+    private final ByteBuffer[] windows;
+    private final StringPool pool;
+    private final long limit;
+    private long pos;
+    // The window last read from, so a scan only looks up a new one when it crosses over
+    private ByteBuffer window;
+    private long windowStart;
+
+    private MappedEventLoader(Mapping mapping, StringPool pool) {
+        this.mapping = mapping;
+        this.windows = mapping.windows;
+        this.pool = pool;
+        this.limit = mapping.size;
+        this.window = windows.length > 0 ? windows[0] : ByteBuffer.allocate(0);
+    }
+
+    // The events decode their attendees from the mapping, so it stays open
+    static List<Event> load(String filePath) throws IOException {
+        return new MappedEventLoader(map(filePath), new StringPool()).readEvents();
+    }
+
+    static MappedEventLoader open(String filePath) throws IOException {
+        return new MappedEventLoader(map(filePath), new StringPool());
+    }
+
+    private static Mapping map(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] windows = new MappedByteBuffer[(int) ((size + WINDOW_MASK) >>> WINDOW_SHIFT)];
+            for (int i = 0; i < windows.length; i++) {
+                long start = (long) i << WINDOW_SHIFT;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_MASK + 1, size - start));
+            }
+            return new Mapping(windows, size);
+        }
+    }
+
+    // Unmaps the file. No other thread may be reading it; later reads fail.
+    @Override
+    public void close() {
+        if (mapping.closed) return;
+        mapping.closed = true;
+        MappedByteBuffer[] unmapped = mapping.windows.clone();
+        Arrays.fill(mapping.windows, null);
+        if (INVOKE_CLEANER == null) return;
+        for (MappedByteBuffer window : unmapped) {
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, window);
+            } catch (ReflectiveOperationException e) {
+                return; // left to the garbage collector
+            }
+        }
+    }
+
+    // The events decode their attendees from this loader's mapping, so it must outlive them
+    List<Event> readEvents() throws IOException {
+        List<Event> events = new ArrayList<>();
+        if (skipWhitespace() == -1) return events;
+
+        expect('[');
+        for (boolean first = true; ; first = false) {
+            int c = skipSeparator(first, ']');
+            if (c == ']') break;
+            if (c == '{') {
+                events.add(readEvent());
+            } else {
+                skipValue();
+            }
+        }
+        return events;
+    }
+
+    // Byte offsets of every top-level event object, found without decoding anything
+    long[] indexEventOffsets() throws IOException {
+        long[] offsets = new long[1024];
+        int count = 0;
+        pos = 0;
+        if (skipWhitespace() == -1) return new long[0];
+
+        expect('[');
+        for (boolean first = true; ; first = false) {
+            int c = skipSeparator(first, ']');
+            if (c == ']') break;
+            if (c == '{') {
+                if (count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+                offsets[count++] = pos;
+            }
+            skipValue();
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    // Safe to call concurrently: each call walks its own cursor over the shared mapping
+    Event readEventAt(long offset) throws IOException {
+        checkOpen();
+        MappedEventLoader cursor = new MappedEventLoader(mapping, pool);
+        cursor.pos = offset;
+        return cursor.readEvent();
+    }
+
+    private Event readEvent() throws IOException {
+        String title = "", date = "", location = "", type = "";
+        long attendeesStart = -1, attendeesEnd = -1;
+        int attendeeCount = 0;
+        int capacity = 0;
+        long nextAttendeeId = 0;
+        List<Attendee> waitlist = List.of();
+
+        expect('{');
+        for (boolean first = true; ; first = false) {
+            int c = skipSeparator(first, '}');
+            if (c == '}') {
+                pos++;
+                break;
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            c = skipWhitespace();
+
+            if (key.equals("attendees") && c == '[') {
+                attendeesStart = pos;
+                attendeeCount = skipArrayCountingObjects();
+                attendeesEnd = pos;
+            } else if (key.equals("capacity") && c >= '0' && c <= '9') {
+                long start = pos;
+                skipValue();
+                capacity = (int) new JsonTokenizer(reader(start, pos)).nextLong();
+            } else if (key.equals("nextAttendeeId") && c >= '0' && c <= '9') {
+                long start = pos;
+                skipValue();
+                nextAttendeeId = new JsonTokenizer(reader(start, pos)).nextLong();
+            } else if (key.equals("waitlist") && c == '[') {
+                long start = pos;
+                skipValue();
+                waitlist = Event.EventJsonParser.readAttendees(new JsonTokenizer(reader(start, pos)));
+            } else if (c == '"' && isScalarKey(key)) {
+                String value = readString();
+                switch (key) {
+                    case "title" -> title = value;
+                    case "date" -> date = pool.intern(value);
+                    case "location" -> location = pool.intern(value);
+                    default -> type = pool.intern(value);
+                }
+            } else {
+                skipValue();
+            }
+        }
+
+        Event event = attendeesStart < 0 ? new Event(title, date, location, type)
+                : new Event(title, date, location, type, attendeeCount, attendeeLoader(attendeesStart, attendeesEnd));
+        event.restoreNextAttendeeId(nextAttendeeId);
+        if (capacity > 0 || !waitlist.isEmpty()) event.restoreCapacity(capacity, waitlist);
+        return event;
+    }
+
+    private static boolean isScalarKey(String key) {
+        return key.equals("title") || key.equals("date") || key.equals("location") || key.equals("type");
+    }
+
+    long size() {
+        return limit;
+    }
+
+    // Decodes a byte range of the mapping; safe to call concurrently
+    Reader reader(long start, long end) throws IOException {
+        checkOpen();
+        if (end - start > DECODE_AT_ONCE || (start >>> WINDOW_SHIFT) != (end >>> WINDOW_SHIFT)) {
+            return new InputStreamReader(new RangeInputStream(start, end), StandardCharsets.UTF_8);
+        }
+        ByteBuffer window = windows[(int) (start >>> WINDOW_SHIFT)];
+        CharBuffer chars = StandardCharsets.UTF_8.decode(window.slice((int) (start & WINDOW_MASK), (int) (end - start)));
+        return new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+    }
+
+    private Supplier<List<Attendee>> attendeeLoader(long start, long end) {
+        return () -> {
+            try {
+                return Event.EventJsonParser.readAttendees(new JsonTokenizer(reader(start, end)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    // Structural scanning. UTF-8 continuation bytes never collide with ASCII
+    // delimiters, so the raw bytes can be walked without decoding.
+
+    private String readString() throws IOException {
+        long start = pos + 1;
+        boolean escaped = skipString();
+
+        byte[] bytes = new byte[Math.toIntExact(pos - 1 - start)];
+        copy(start, bytes, 0, bytes.length);
+
+        String raw = new String(bytes, StandardCharsets.UTF_8);
+        if (!escaped) return raw;
+        return new JsonTokenizer(new StringReader('"' + raw + '"')).nextString();
+    }
+
+    // Moves past a string without decoding it; returns whether it contains escapes
+    private boolean skipString() throws IOException {
+        expect('"');
+        boolean escaped = false;
+        while (pos < limit) {
+            byte b = byteAt(pos);
+            if (b == '\\') {
+                escaped = true;
+                pos += 2;
+            } else if (b == '"') {
+                pos++;
+                return escaped;
+            } else {
+                pos++;
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private int skipArrayCountingObjects() throws IOException {
+        int count = 0;
+        int depth = 0;
+        while (pos < limit) {
+            byte b = byteAt(pos);
+            if (b == '"') {
+                skipString();
+                continue;
+            }
+            pos++;
+            if (b == '[' || b == '{') {
+                if (b == '{' && depth == 1) count++;
+                depth++;
+            } else if (b == ']' || b == '}') {
+                if (--depth == 0) return count;
+            }
+        }
+        throw syntaxError("Unterminated array");
+    }
+
+    private void skipValue() throws IOException {
+        int c = skipWhitespace();
+        if (c == '"') {
+            skipString();
+        } else if (c == '[' || c == '{') {
+            skipArrayCountingObjects();
+        } else {
+            while (pos < limit) {
+                byte b = byteAt(pos);
+                if (b == ',' || b == '}' || b == ']' || isWhitespace(b)) break;
+                pos++;
+            }
+        }
+    }
+
+    // Moves to the next member or element, past exactly one comma unless it is the
+    // first; returns its first byte, or close at the end of the container
+    private int skipSeparator(boolean first, char close) throws IOException {
+        int c = skipWhitespace();
+        if (c == close) return c;
+        if (!first) {
+            if (c != ',') throw syntaxError("Expected ',' or '" + close + "'");
+            pos++;
+            c = skipWhitespace();
+        }
+        if (c == -1 || c == ',' || c == ']' || c == '}') throw syntaxError("Expected value");
+        return c;
+    }
+
+    private int skipWhitespace() {
+        while (pos < limit) {
+            byte b = byteAt(pos);
+            if (!isWhitespace(b)) return b;
+            pos++;
+        }
+        return -1;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private void expect(char c) throws IOException {
+        if (pos >= limit || byteAt(pos) != c) throw syntaxError("Expected '" + c + "'");
+        pos++;
+    }
+
+    private byte byteAt(long at) {
+        long index = at - windowStart;
+        if (index < 0 || index >= window.limit()) {
+            window = windows[(int) (at >>> WINDOW_SHIFT)];
+            windowStart = at & ~WINDOW_MASK;
+            index = at - windowStart;
+        }
+        return window.get((int) index);
+    }
+
+    // Copies length bytes from at, crossing windows as needed
+    private void copy(long at, byte[] target, int offset, int length) {
+        while (length > 0) {
+            ByteBuffer window = windows[(int) (at >>> WINDOW_SHIFT)];
+            int index = (int) (at & WINDOW_MASK);
+            int n = Math.min(length, window.limit() - index);
+            window.get(index, target, offset, n);
+            at += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (mapping.closed) throw new IOException("Events file is closed");
+    }
+
+    // A byte range of the mapping as a stream, for ranges too long to decode at once.
+    // Several may be read at once, so it keeps its own window rather than the loader's.
+    private final class RangeInputStream extends InputStream {
+        private long at;
+        private final long end;
+        private ByteBuffer view = ByteBuffer.allocate(0);
+        private long viewStart;
+
+        RangeInputStream(long start, long end) {
+            this.at = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() {
+            if (at >= end) return -1;
+            long index = at - viewStart;
+            if (index < 0 || index >= view.limit()) {
+                view = windows[(int) (at >>> WINDOW_SHIFT)];
+                viewStart = at & ~WINDOW_MASK;
+                index = at - viewStart;
+            }
+            at++;
+            return view.get((int) index) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) return 0;
+            if (at >= end) return -1;
+            int n = (int) Math.min(length, end - at);
+            copy(at, target, offset, n);
+            at += n;
+            return n;
+        }
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at byte " + pos);
+    }
+}
@@ -0,0 +1,131 @@
+import javax.swing.table.AbstractTableModel;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only table model over an events file that is never loaded as a whole.
+ * Rows are fetched a page at a time from the memory-mapped file as the table
+ * asks for them, kept in a bounded LRU cache, and the next page in the
+ * direction of scrolling is prefetched in the background. Closing the model
+ * unmaps the file.
+ */
+public class PagedEventTableModel extends AbstractTableModel {
+    private static final int PAGE_SIZE = 256;
+    private static final int MAX_CACHED_PAGES = 32;
+
+    private final MappedEventLoader loader;
+    private final long[] offsets;
+    private final Map<Integer, List<Event>> pages = new LinkedHashMap<>(MAX_CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Event>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> prefetching = new HashSet<>();
+    private final ExecutorService prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-page-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int lastPage = -1;
+
+    public PagedEventTableModel(String filePath) throws IOException {
+        this.loader = MappedEventLoader.open(filePath);
+        this.offsets = loader.indexEventOffsets();
+    }
+
+    // Called on the event dispatch thread, so only a prefetch can still be reading
+    public void close() {
+        prefetcher.shutdownNow();
+        synchronized (pages) {
+            pages.clear();
+        }
+        try {
+            if (prefetcher.awaitTermination(5, TimeUnit.SECONDS)) loader.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // the mapping is left to the garbage collector
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return offsets.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return EventTableModel.COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return EventTableModel.COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return EventTableModel.columnClass(columnIndex);
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / PAGE_SIZE;
+        List<Event> rows = getPage(page);
+        if (page != lastPage) {
+            if (lastPage >= 0) prefetch(page > lastPage ? page + 1 : page - 1);
+            lastPage = page;
+        }
+        return rows == null ? null : EventTableModel.columnValue(rows.get(rowIndex % PAGE_SIZE), columnIndex);
+    }
+
+    private List<Event> getPage(int page) {
+        synchronized (pages) {
+            List<Event> rows = pages.get(page);
+            if (rows != null) return rows;
+        }
+        try {
+            List<Event> rows = readPage(page);
+            synchronized (pages) {
+                pages.put(page, rows);
+            }
+            return rows;
+        } catch (IOException e) {
+            System.err.println("Error reading events page " + page + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void prefetch(int page) {
+        if (page < 0 || page * PAGE_SIZE >= offsets.length) return;
+        synchronized (pages) {
+            if (pages.containsKey(page) || !prefetching.add(page)) return;
+        }
+        prefetcher.execute(() -> {
+            try {
+                List<Event> rows = readPage(page);
+                synchronized (pages) {
+                    pages.putIfAbsent(page, rows);
+                }
+            } catch (IOException e) {
+                System.err.println("Error prefetching events page " + page + ": " + e.getMessage());
+            } finally {
+                synchronized (pages) {
+                    prefetching.remove(page);
+                }
+            }
+        });
+    }
+
+    private List<Event> readPage(int page) throws IOException {
+        int first = page * PAGE_SIZE;
+        int last = Math.min(first + PAGE_SIZE, offsets.length);
+        List<Event> rows = new ArrayList<>(last - first);
+        for (int row = first; row < last; row++) {
+            rows.add(loader.readEventAt(offsets[row]));
+        }
+        return rows;
+    }
+}
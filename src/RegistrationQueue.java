@@ -0,0 +1,138 @@
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for registrations. Concurrent callers submit registrations and
+ * get futures back; one thread takes everything queued (up to a full batch),
+ * applies it through {@link EventManagerApp#registerAll} under one lock
+ * acquisition and then flushes the journal once, so a spike of registrations
+ * costs one fsync per batch instead of one per registration. Registrations
+ * arriving during that fsync form the next batch, which is what sizes batches
+ * under load; an optional window makes a batch also wait for late arrivals.
+ * Futures complete only after their batch is on disk, on the queue's thread,
+ * so callers should not chain slow work onto them synchronously. If the flush
+ * fails, every future of the batch completes exceptionally with its
+ * IOException; the registrations stay applied in memory and are written by
+ * the next flush that succeeds.
+ */
+public final class RegistrationQueue implements AutoCloseable {
+    private static final Duration DEFAULT_WINDOW = Duration.ZERO;
+    private static final int DEFAULT_MAX_BATCH = 4096;
+    private static final int CAPACITY = 64 * 1024;
+
+    private record Pending(EventManagerApp.Registration registration, CompletableFuture<EventManagerApp.RegistrationResult> result) {
+    }
+
+    private static final Pending STOP = new Pending(null, null);
+
+    private final EventManagerApp app;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final Thread worker;
+    private volatile boolean closed;
+
+    public RegistrationQueue(EventManagerApp app) {
+        this(app, DEFAULT_WINDOW, DEFAULT_MAX_BATCH);
+    }
+
+    // A registration waits at most window, plus the flush, for others to join its batch
+    public RegistrationQueue(EventManagerApp app, Duration window, int maxBatch) {
+        if (maxBatch < 1) throw new IllegalArgumentException("maxBatch must be positive: " + maxBatch);
+        this.app = app;
+        this.windowNanos = window.toNanos();
+        this.maxBatch = maxBatch;
+        this.worker = new Thread(this::run, "registration-queue");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Completes with the outcome and the stored attendee. Blocks while the queue is full.
+    public CompletableFuture<EventManagerApp.RegistrationResult> submit(String eventTitle, Attendee attendee, Event.DedupPolicy policy) {
+        CompletableFuture<EventManagerApp.RegistrationResult> result = new CompletableFuture<>();
+        if (closed) {
+            result.completeExceptionally(new IllegalStateException("Registration queue is closed"));
+            return result;
+        }
+        try {
+            queue.put(new Pending(new EventManagerApp.Registration(eventTitle, attendee, policy), result));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+        // Closed while waiting for room, after the worker's last look at the queue
+        if (closed && !worker.isAlive()) failLeftovers();
+        return result;
+    }
+
+    // Applies and flushes everything already submitted, then stops
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            queue.put(STOP);
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failLeftovers();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - batch.size());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                stopping = true; // apply what was gathered, then stop
+            }
+            stopping |= batch.removeIf(pending -> pending == STOP);
+            if (!batch.isEmpty()) apply(batch);
+            batch.clear();
+        }
+    }
+
+    private void apply(List<Pending> batch) {
+        List<EventManagerApp.Registration> registrations = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            registrations.add(pending.registration());
+        }
+        List<EventManagerApp.RegistrationResult> results;
+        try {
+            results = app.registerAll(registrations);
+            app.saveEventsDurably();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error applying " + batch.size() + " registrations: " + e.getMessage());
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(results.get(i));
+        }
+    }
+
+    private void failLeftovers() {
+        List<Pending> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        for (Pending pending : leftovers) {
+            if (pending != STOP) pending.result().completeExceptionally(new IllegalStateException("Registration queue is closed"));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dedup pool for the field values that repeat across a load, such as types,
+ * locations and dates, so each distinct value is held once instead of once
+ * per event. A pool lives only as long as one load, unlike String.intern,
+ * so values that stop being used can be collected. Safe for the parallel
+ * loader's threads to share.
+ */
+final class StringPool {
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+
+    String intern(String value) {
+        String pooled = values.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+}
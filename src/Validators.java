@@ -0,0 +1,65 @@
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Input checks shared by the GUI, the app and bulk imports. Patterns are
+ * compiled once, and the domain half of an email address is validated once
+ * per distinct domain, since imports repeat a handful of domains across
+ * thousands of rows. Safe to call from any thread.
+ */
+final class Validators {
+    private static final Pattern DATE_SHAPE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    private static final Pattern EMAIL_LOCAL_PART = Pattern.compile("[\\w.-]+");
+    private static final Pattern EMAIL_DOMAIN = Pattern.compile("([\\w-]+\\.)+[\\w-]{2,4}");
+    private static final int MAX_CACHED_DOMAINS = 10_000;
+
+    private static final Map<String, Boolean> domainCache = new ConcurrentHashMap<>();
+
+    private Validators() {
+    }
+
+    static boolean isValidTitle(String title) {
+        return title != null && !title.isBlank();
+    }
+
+    // YYYY-MM-DD naming a real calendar day, so 2024-02-30 is rejected
+    static boolean isValidDate(String date) {
+        return parseDate(date) != null;
+    }
+
+    // The date as a LocalDate, or null if it is not a valid YYYY-MM-DD day
+    static LocalDate parseDate(String date) {
+        if (date == null || !DATE_SHAPE.matcher(date).matches()) return null;
+        try {
+            return LocalDate.of(Integer.parseInt(date, 0, 4, 10), Integer.parseInt(date, 5, 7, 10), Integer.parseInt(date, 8, 10, 10));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    static boolean isValidEmail(String email) {
+        if (email == null) return false;
+        int at = email.indexOf('@');
+        if (at <= 0 || at == email.length() - 1) return false;
+        return EMAIL_LOCAL_PART.matcher(email).region(0, at).matches() && isValidDomain(email.substring(at + 1));
+    }
+
+    // The minimal shape an attendee's email must have: something on both sides of an '@'
+    static boolean hasEmailShape(String email) {
+        int at = email.indexOf('@');
+        return at > 0 && at < email.length() - 1;
+    }
+
+    private static boolean isValidDomain(String domain) {
+        Boolean valid = domainCache.get(domain);
+        if (valid == null) {
+            valid = EMAIL_DOMAIN.matcher(domain).matches();
+            if (domainCache.size() >= MAX_CACHED_DOMAINS) domainCache.clear();
+            domainCache.put(domain, valid);
+        }
+        return valid;
+    }
+}